@@ -0,0 +1,356 @@
+package ru.anmo.batch_runner;
+
+import ru.anmo.waterpool_solver.IWaterPoolSolver;
+import ru.anmo.waterpool_solver.SequentialWaterPoolSolver;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command-line solver for many landscapes, without a Spring context.
+ * <pre>
+ * BatchRunner [--format text|binary] [--threads N] [--queue N] [--output FILE] [FILE | -]...
+ * </pre>
+ * Landscapes are read from the files in order, or from stdin when there are none or for {@code -}.
+ * Text input holds one landscape per line, binary input is a sequence of {@link ru.anmo.world_generator.LandscapeFileStorage}
+ * landscapes. One water amount per landscape is written per line, in input order, and the throughput goes to stderr.
+ * <p>
+ * The reader groups landscapes into batches and hands them to solver threads, which hand them to the writer, through
+ * queues of {@code --queue} batches: a slow stage stops the ones before it instead of piling up landscapes in memory.
+ */
+public final class BatchRunner {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+    public static final int BATCH_LANDSCAPES = 1 << 10;
+    public static final int BATCH_COLUMNS = 1 << 20;
+
+    static final int EXIT_FAILURE = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+
+    public enum Format {
+        TEXT,
+        BINARY
+    }
+
+    private final Format mFormat;
+    private final int mThreads;
+    private final int mQueueCapacity;
+    private final IWaterPoolSolver mSolver;
+
+    public BatchRunner(Format format, int threads, int queueCapacity) {
+        this(format, threads, queueCapacity, new SequentialWaterPoolSolver());
+    }
+
+    BatchRunner(Format format, int threads, int queueCapacity, IWaterPoolSolver solver) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Incorrect threads = " + threads + " or queue = " + queueCapacity + ", both should be positive");
+        }
+        mFormat = format;
+        mThreads = threads;
+        mQueueCapacity = queueCapacity;
+        mSolver = solver;
+    }
+
+    public static void main(String[] args) {
+        int exitCode = run(args, System.in, System.out, System.err);
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Runs the command line and returns the exit code.
+     */
+    static int run(String[] args, InputStream stdin, OutputStream stdout, PrintStream stderr) {
+        Format format = Format.TEXT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        Path outputFile = null;
+        List<String> inputNames = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--format" -> format = Format.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                    case "--threads" -> threads = Integer.parseInt(value(args, ++i));
+                    case "--queue" -> queueCapacity = Integer.parseInt(value(args, ++i));
+                    case "--output" -> outputFile = Path.of(value(args, ++i));
+                    default -> inputNames.add(args[i]);
+                }
+            }
+            if (inputNames.isEmpty()) {
+                inputNames.add("-");
+            }
+        } catch (IllegalArgumentException e) {
+            stderr.println(e.getMessage());
+            stderr.println("Usage: BatchRunner [--format text|binary] [--threads N] [--queue N] [--output FILE] [FILE | -]...");
+            return EXIT_USAGE;
+        }
+
+        List<InputStream> inputs = new ArrayList<>();
+        try {
+            for (String inputName : inputNames) {
+                inputs.add(inputName.equals("-") ? stdin : Files.newInputStream(Path.of(inputName)));
+            }
+            Report report;
+            if (outputFile == null) {
+                report = new BatchRunner(format, threads, queueCapacity).run(inputs, stdout);
+            } else {
+                try (OutputStream output = Files.newOutputStream(outputFile)) {
+                    report = new BatchRunner(format, threads, queueCapacity).run(inputs, output);
+                }
+            }
+            stderr.println(report);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            stderr.println("Failed: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stderr.println("Interrupted");
+            return EXIT_FAILURE;
+        } finally {
+            for (InputStream input : inputs) {
+                if (input != stdin) {
+                    try {
+                        input.close();
+                    } catch (IOException ignored) {
+                        // nothing was written to it
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves every landscape of {@code inputs}, in order, and writes the water amounts to {@code output}.
+     * Input errors stop the run after the landscapes read so far are written, and so do solve errors, which are rethrown
+     * after the landscapes before the failed batch are written.
+     */
+    public Report run(List<InputStream> inputs, OutputStream output) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        BlockingQueue<Batch> parsed = new ArrayBlockingQueue<>(mQueueCapacity);
+        BlockingQueue<Batch> solved = new ArrayBlockingQueue<>(mQueueCapacity);
+
+        List<Thread> solvers = new ArrayList<>();
+        for (int i = 0; i < mThreads; i++) {
+            solvers.add(startThread("batch-solver-" + i, () -> solve(parsed, solved)));
+        }
+        Writer writer = new Writer(solved, output);
+        Thread writerThread = startThread("batch-writer", writer);
+
+        long landscapeCount = 0;
+        long columnCount = 0;
+        long sequence = 0;
+        IOException readFailure = null;
+        try {
+            List<int[]> landscapes = new ArrayList<>();
+            long batchColumns = 0;
+            for (InputStream input : inputs) {
+                ILandscapeReader reader = mFormat == Format.TEXT ? new TextLandscapeReader(input) : new BinaryLandscapeReader(input);
+                for (int[] landscape = reader.next(); landscape != null; landscape = reader.next()) {
+                    landscapes.add(landscape);
+                    batchColumns += landscape.length;
+                    landscapeCount++;
+                    columnCount += landscape.length;
+                    if (landscapes.size() == BATCH_LANDSCAPES || batchColumns >= BATCH_COLUMNS) {
+                        parsed.put(new Batch(sequence++, landscapes.toArray(new int[0][])));
+                        landscapes.clear();
+                        batchColumns = 0;
+                    }
+                }
+            }
+            if (!landscapes.isEmpty()) {
+                parsed.put(new Batch(sequence++, landscapes.toArray(new int[0][])));
+            }
+        } catch (IOException e) {
+            readFailure = e;
+        } finally {
+            for (int i = 0; i < mThreads; i++) {
+                parsed.put(Batch.END);
+            }
+            for (Thread solver : solvers) {
+                solver.join();
+            }
+            solved.put(Batch.END);
+            writerThread.join();
+        }
+
+        if (readFailure != null) {
+            throw readFailure;
+        }
+        if (writer.mFailure != null) {
+            throw writer.mFailure;
+        }
+        if (writer.mSolveFailure instanceof Error error) {
+            throw error;
+        }
+        if (writer.mSolveFailure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (writer.mSolveFailure != null) {
+            throw new IllegalStateException("Solve failed", writer.mSolveFailure);
+        }
+        return new Report(landscapeCount, columnCount, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Size and speed of one run.
+     */
+    public static final class Report {
+        private final long mLandscapeCount;
+        private final long mColumnCount;
+        private final long mNanos;
+
+        Report(long landscapeCount, long columnCount, long nanos) {
+            mLandscapeCount = landscapeCount;
+            mColumnCount = columnCount;
+            mNanos = nanos;
+        }
+
+        public long getLandscapeCount() {
+            return mLandscapeCount;
+        }
+
+        public long getColumnCount() {
+            return mColumnCount;
+        }
+
+        public long getNanos() {
+            return mNanos;
+        }
+
+        public double getLandscapesPerSecond() {
+            return mLandscapeCount * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, mNanos);
+        }
+
+        public double getColumnsPerSecond() {
+            return mColumnCount * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, mNanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d landscapes, %d columns in %d ms: %.0f landscapes/s, %.0f columns/s",
+                    mLandscapeCount, mColumnCount, TimeUnit.NANOSECONDS.toMillis(mNanos), getLandscapesPerSecond(), getColumnsPerSecond());
+        }
+    }
+
+
+
+
+    private void solve(BlockingQueue<Batch> parsed, BlockingQueue<Batch> solved) {
+        try {
+            for (Batch batch = parsed.take(); batch != Batch.END; batch = parsed.take()) {
+                try {
+                    batch.mWaterAmounts = mSolver.calculateWaterAmounts(batch.mLandscapes);
+                } catch (Throwable e) {
+                    // Forwarded, so the writer fails the run instead of waiting for this batch forever
+                    batch.mSolveFailure = e;
+                }
+                batch.mLandscapes = null;
+                solved.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread startThread(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static class Batch {
+        static final Batch END = new Batch(-1, null);
+
+        private final long mSequence;
+        private int[][] mLandscapes;
+        private long[] mWaterAmounts;
+        private Throwable mSolveFailure;
+
+        Batch(long sequence, int[][] landscapes) {
+            mSequence = sequence;
+            mLandscapes = landscapes;
+        }
+    }
+
+    /**
+     * Puts the solved batches back into input order and writes them out.
+     * After a write failure, or on reaching a batch that failed to solve, it keeps draining the queue,
+     * so the stages before it never block on a full one.
+     */
+    private static class Writer implements Runnable {
+        private final BlockingQueue<Batch> mSolved;
+        private final OutputStream mOutput;
+        private final PriorityQueue<Batch> mPending = new PriorityQueue<>((first, second) -> Long.compare(first.mSequence, second.mSequence));
+        private long mNextSequence;
+        private volatile IOException mFailure;
+        private volatile Throwable mSolveFailure;
+
+        Writer(BlockingQueue<Batch> solved, OutputStream output) {
+            mSolved = solved;
+            mOutput = output;
+        }
+
+        @Override
+        public void run() {
+            BufferedOutputStream output = new BufferedOutputStream(mOutput, OUTPUT_BUFFER_BYTES);
+            try {
+                for (Batch batch = mSolved.take(); batch != Batch.END; batch = mSolved.take()) {
+                    if (mFailure != null || mSolveFailure != null) {
+                        continue;
+                    }
+                    mPending.add(batch);
+                    try {
+                        while (!mPending.isEmpty() && mPending.peek().mSequence == mNextSequence) {
+                            Batch next = mPending.poll();
+                            if (next.mSolveFailure != null) {
+                                mSolveFailure = next.mSolveFailure;
+                                mPending.clear();
+                                break;
+                            }
+                            for (long waterAmount : next.mWaterAmounts) {
+                                output.write(Long.toString(waterAmount).getBytes(StandardCharsets.US_ASCII));
+                                output.write('\n');
+                            }
+                            mNextSequence++;
+                        }
+                    } catch (IOException e) {
+                        mFailure = e;
+                    }
+                }
+                if (mFailure == null) {
+                    output.flush();
+                }
+            } catch (IOException e) {
+                mFailure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
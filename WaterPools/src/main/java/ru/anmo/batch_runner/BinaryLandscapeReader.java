@@ -0,0 +1,91 @@
+package ru.anmo.batch_runner;
+
+import ru.anmo.world_generator.HeightWidth;
+import ru.anmo.world_generator.LandscapeFileStorage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Landscapes in the {@link LandscapeFileStorage} layout, header and heights, one after another.
+ * A single landscape file is the simplest such stream.
+ */
+final class BinaryLandscapeReader implements ILandscapeReader {
+
+    private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private final InputStream mInput;
+    private final ByteBuffer mHeader = ByteBuffer.allocate(LandscapeFileStorage.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer mChunk = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    BinaryLandscapeReader(InputStream input) {
+        mInput = input;
+    }
+
+    @Override
+    public int[] next() throws IOException {
+        mHeader.clear();
+        int headerBytes = readFully(mHeader.array(), 0, LandscapeFileStorage.HEADER_LENGTH);
+        if (headerBytes == 0) {
+            return null;
+        }
+        if (headerBytes < LandscapeFileStorage.HEADER_LENGTH) {
+            throw new EOFException("Input ends inside a landscape header");
+        }
+
+        if (mHeader.getInt() != LandscapeFileStorage.MAGIC) {
+            throw new IOException("Not a landscape stream");
+        }
+        byte version = mHeader.get();
+        if (version != LandscapeFileStorage.VERSION) {
+            throw new IOException("Unsupported landscape file version = " + version);
+        }
+        HeightWidth width;
+        try {
+            width = HeightWidth.fromBytes(mHeader.get());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        mHeader.getShort();
+        long length = mHeader.getLong();
+        if (length < 0 || length > MAX_LENGTH) {
+            throw new IOException("Incorrect landscape length = " + length + ", should be between 0 and " + MAX_LENGTH);
+        }
+
+        int[] landscape = new int[(int) length];
+        int columnsPerChunk = CHUNK_BYTES / width.getBytes();
+        for (int start = 0; start < landscape.length; start += columnsPerChunk) {
+            int columns = Math.min(columnsPerChunk, landscape.length - start);
+            if (readFully(mChunk.array(), 0, columns * width.getBytes()) < columns * width.getBytes()) {
+                throw new EOFException("Landscape is truncated, expected " + length + " columns");
+            }
+            mChunk.clear();
+            for (int i = start; i < start + columns; i++) {
+                landscape[i] = switch (width) {
+                    case BYTE -> mChunk.get() & 0xFF;
+                    case SHORT -> mChunk.getShort() & 0xFFFF;
+                    case INT -> mChunk.getInt();
+                };
+            }
+        }
+        return landscape;
+    }
+
+
+
+    private int readFully(byte[] bytes, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = mInput.read(bytes, offset + read, length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        return read;
+    }
+}
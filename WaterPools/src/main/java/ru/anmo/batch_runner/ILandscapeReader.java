@@ -0,0 +1,13 @@
+package ru.anmo.batch_runner;
+
+import java.io.IOException;
+
+/**
+ * Pulls landscapes one by one out of an input stream.
+ */
+interface ILandscapeReader {
+    /**
+     * @return the next landscape, null at the end of the input
+     */
+    int[] next() throws IOException;
+}
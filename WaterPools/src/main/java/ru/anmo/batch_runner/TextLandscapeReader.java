@@ -0,0 +1,91 @@
+package ru.anmo.batch_runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * One landscape per line, heights separated by spaces, tabs or commas. Blank lines are skipped.
+ * Digits are parsed straight from the bytes, without building a string per line.
+ */
+final class TextLandscapeReader implements ILandscapeReader {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final InputStream mInput;
+    private final byte[] mBuffer = new byte[BUFFER_BYTES];
+    private int mPosition;
+    private int mLimit;
+    private long mLine;
+    private int[] mHeights = new int[1 << 10];
+
+    TextLandscapeReader(InputStream input) {
+        mInput = input;
+    }
+
+    @Override
+    public int[] next() throws IOException {
+        int count = 0;
+        boolean inNumber = false;
+        boolean negative = false;
+        long value = 0;
+
+        while (true) {
+            int b = read();
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE + 1L) {
+                    throw new IOException("Height is too big on line " + (mLine + 1));
+                }
+                inNumber = true;
+                continue;
+            }
+            if (b == '-' && !inNumber && !negative) {
+                negative = true;
+                continue;
+            }
+
+            if (inNumber) {
+                long height = negative ? -value : value;
+                if (height > Integer.MAX_VALUE) {
+                    throw new IOException("Height is too big on line " + (mLine + 1));
+                }
+                if (count == mHeights.length) {
+                    mHeights = Arrays.copyOf(mHeights, 2 * count);
+                }
+                mHeights[count++] = (int) height;
+                inNumber = false;
+                negative = false;
+                value = 0;
+            } else if (negative) {
+                throw new IOException("Dangling '-' on line " + (mLine + 1));
+            }
+
+            if (b == '\n' || b < 0) {
+                mLine++;
+                if (count > 0) {
+                    return Arrays.copyOf(mHeights, count);
+                }
+                if (b < 0) {
+                    return null;
+                }
+            } else if (b != ' ' && b != '\t' && b != ',' && b != '\r') {
+                throw new IOException("Unexpected character '" + (char) b + "' on line " + (mLine + 1));
+            }
+        }
+    }
+
+
+
+    private int read() throws IOException {
+        if (mPosition == mLimit) {
+            mLimit = mInput.read(mBuffer, 0, mBuffer.length);
+            mPosition = 0;
+            if (mLimit <= 0) {
+                mLimit = 0;
+                return -1;
+            }
+        }
+        return mBuffer[mPosition++] & 0xFF;
+    }
+}
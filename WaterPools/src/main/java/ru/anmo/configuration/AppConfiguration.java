@@ -1,29 +1,96 @@
 package ru.anmo.configuration;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Scope;
+import ru.anmo.waterpool_solver.CachingWaterPoolSolver;
+import ru.anmo.waterpool_solver.IWaterPoolSolver;
+import ru.anmo.waterpool_solver.SolverEngine;
+import ru.anmo.waterpool_solver.SolverMetrics;
+import ru.anmo.waterpool_solver.VirtualThreadWaterPoolSolver;
 
+import javax.annotation.PreDestroy;
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.random.RandomGenerator;
 
 @Configuration
 @ComponentScan(value="ru.anmo")
 public class AppConfiguration {
 
+    private ForkJoinPool executorService;
+
+    @Value("${waterpools.executor.shutdown-timeout-seconds:30}")
+    private long executorShutdownTimeoutSeconds;
+
     @Bean
     @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
     RandomGenerator getRandomizer() {
         return new Random();
     }
 
+    /**
+     * Work-stealing pool shared by every solver in the context.
+     * {@code waterpools.executor.parallelism} sets the pool size, 0 means one thread per available processor.
+     */
+    @Bean(destroyMethod = "")
+    @Scope(ConfigurableBeanFactory.SCOPE_SINGLETON)
+    ForkJoinPool getExecutorService(@Value("${waterpools.executor.parallelism:0}") int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        executorService = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        return executorService;
+    }
+
+    /**
+     * Solver picked by {@code waterpools.solver.engine}, behind the cache when {@code waterpools.cache.enabled} is set.
+     * With the {@value VirtualThreadConfiguration#PROFILE} profile active every solve is served on a request thread
+     * by {@link VirtualThreadWaterPoolSolver} instead.
+     */
+    @Bean
+    @Primary
+    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
+    IWaterPoolSolver getWaterPoolSolver(ApplicationContext context,
+                                        ObjectProvider<VirtualThreadWaterPoolSolver> virtualThreadSolver,
+                                        @Value("${waterpools.solver.engine:SEQUENTIAL}") SolverEngine engine,
+                                        @Value("${waterpools.cache.enabled:false}") boolean cacheEnabled) {
+        IWaterPoolSolver solver = virtualThreadSolver.getIfAvailable();
+        if (solver == null) {
+            solver = cacheEnabled
+                    ? context.getBean(CachingWaterPoolSolver.class)
+                    : context.getBean(engine.getSolverClass());
+        }
+        return context.getBean(SolverMetrics.class).instrument(solver);
+    }
+
+    /**
+     * Result cache in front of the configured engine, shared by the whole context.
+     * Used by the primary solver when {@code waterpools.cache.enabled} is set.
+     */
     @Bean
     @Scope(ConfigurableBeanFactory.SCOPE_SINGLETON)
-    ExecutorService getExecutorService() {
-        return Executors.newWorkStealingPool();
+    CachingWaterPoolSolver getCachingWaterPoolSolver(ApplicationContext context,
+                                                     @Value("${waterpools.solver.engine:SEQUENTIAL}") SolverEngine engine,
+                                                     @Value("${waterpools.cache.max-bytes:67108864}") long maxBytes) {
+        return new CachingWaterPoolSolver(context.getBean(engine.getSolverClass()), maxBytes);
+    }
+
+    @PreDestroy
+    void shutdownExecutorService() throws InterruptedException {
+        if (executorService == null) {
+            return;
+        }
+        executorService.shutdown();
+        if (!executorService.awaitTermination(executorShutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            executorService.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,54 @@
+package ru.anmo.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request-serving mode, active with the {@value #PROFILE} profile.
+ * Every solve request gets its own virtual thread, so a request waiting on the work-stealing pool does not hold a platform thread.
+ * Virtual threads are a preview API at the language level this module compiles against, so the executor is looked up
+ * reflectively; on runtimes without them (or without {@code --enable-preview} on 19 and 20) it falls back to
+ * one daemon platform thread per request.
+ */
+@Configuration
+@Profile(VirtualThreadConfiguration.PROFILE)
+public class VirtualThreadConfiguration {
+
+    public static final String PROFILE = "virtual-threads";
+    public static final String REQUEST_EXECUTOR = "requestExecutor";
+
+    @Bean(name = REQUEST_EXECUTOR, destroyMethod = "shutdown")
+    ExecutorService getRequestExecutor() {
+        ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        if (virtualThreadExecutor != null) {
+            return virtualThreadExecutor;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "waterpools-request-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, or null when this runtime cannot start virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the engine for every call.
+ * Landscapes of at least {@code parallelThreshold} columns go to the fork/join solver, if the pool has more than one thread.
+ * Below that, landscapes of at least {@code simdThreshold} columns go to the SIMD solver, but only when a sample
+ * of short runs shows frequent rises and falls: on long monotone runs the two-pointer pass never mispredicts a branch
+ * and beats the vector scans. Narrow, off-heap and run-length landscapes (counted in runs) only choose between
+ * the fork/join solver and the two-pointer pass.
+ * <p>
+ * Thresholds come from {@code waterpools.adaptive.parallel-threshold} and {@code waterpools.adaptive.simd-threshold},
+ * or are measured at startup on a random world when {@code waterpools.adaptive.calibrate} is set.
+ * The calibration takes a fraction of a second, so it only finds the crossover roughly.
+ */
+@Component
+public class AdaptiveWaterPoolSolver implements IWaterPoolSolver {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 18;
+    public static final int DEFAULT_SIMD_THRESHOLD = 1 << 10;
+
+    static final int SAMPLE_WINDOWS = 8;
+    static final int SAMPLE_WINDOW_LENGTH = 16;
+
+    private static final int CALIBRATION_MIN_LENGTH = 1 << 8;
+    private static final int CALIBRATION_MAX_LENGTH = 1 << 21;
+    private static final int CALIBRATION_ROUNDS = 5;
+    private static final long CALIBRATION_SEED = 0x5EED;
+
+    // Keeps the calibration solves from being optimized away
+    private static volatile long calibrationChecksum;
+
+    @Autowired
+    private SequentialWaterPoolSolver sequentialSolver;
+
+    @Autowired
+    private ParallelPrefixWaterPoolSolver parallelSolver;
+
+    @Autowired
+    private VectorWaterPoolSolver vectorSolver;
+
+    @Autowired
+    private MappedWaterPoolSolver offHeapSolver;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    @Value("${waterpools.adaptive.parallel-threshold:" + DEFAULT_PARALLEL_THRESHOLD + "}")
+    private int parallelThreshold;
+
+    @Value("${waterpools.adaptive.simd-threshold:" + DEFAULT_SIMD_THRESHOLD + "}")
+    private int simdThreshold;
+
+    @Value("${waterpools.adaptive.calibrate:false}")
+    private boolean calibrate;
+
+    @PostConstruct
+    void calibrateThresholds() {
+        if (!calibrate) {
+            return;
+        }
+        int[] calibrationWorld = new SplittableRandom(CALIBRATION_SEED).ints(CALIBRATION_MAX_LENGTH, 0, 32001).toArray();
+        parallelThreshold = pool.getParallelism() > 1
+                ? findCrossover(calibrationWorld, parallelSolver)
+                : Integer.MAX_VALUE;
+        simdThreshold = VectorWaterPoolSolver.isVectorApiAvailable()
+                ? findCrossover(calibrationWorld, vectorSolver)
+                : Integer.MAX_VALUE;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public int getSimdThreshold() {
+        return simdThreshold;
+    }
+
+    /**
+     * The engine that will solve the landscape.
+     */
+    public SolverEngine selectEngine(int[] landscape) {
+        if (isParallel(landscape.length)) {
+            return SolverEngine.PARALLEL_PREFIX;
+        }
+        if (landscape.length >= simdThreshold && VectorWaterPoolSolver.isVectorApiAvailable() && isIrregular(landscape)) {
+            return SolverEngine.SIMD;
+        }
+        return SolverEngine.SEQUENTIAL;
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        return switch (selectEngine(landscape)) {
+            case PARALLEL_PREFIX -> parallelSolver.calculateWaterAmount(landscape);
+            case SIMD -> vectorSolver.calculateWaterAmount(landscape);
+            default -> sequentialSolver.calculateWaterAmount(landscape);
+        };
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        if (isParallel(landscape.length)) {
+            return parallelSolver.calculateWaterAmount(landscape);
+        }
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        if (isParallel(landscape.length)) {
+            return parallelSolver.calculateWaterAmount(landscape);
+        }
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        if (isParallel(landscape.getLength())) {
+            return offHeapSolver.calculateWaterAmount(landscape);
+        }
+        return SequentialWaterPoolSolver.solve(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        if (isParallel(landscape.getRunCount())) {
+            return parallelSolver.calculateWaterAmount(landscape);
+        }
+        return SequentialWaterPoolSolver.solve(landscape);
+    }
+
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return parallelSolver.calculateWaterAmounts(landscapes);
+    }
+
+    @Override
+    public void forEachPool(int[] landscape, PoolConsumer consumer) {
+        if (isParallel(landscape.length)) {
+            parallelSolver.forEachPool(landscape, consumer);
+        } else {
+            sequentialSolver.forEachPool(landscape, consumer);
+        }
+    }
+
+
+
+    private boolean isParallel(long length) {
+        return length >= parallelThreshold && pool.getParallelism() > 1;
+    }
+
+    /**
+     * Samples {@link #SAMPLE_WINDOWS} evenly spaced runs of {@link #SAMPLE_WINDOW_LENGTH} columns
+     * and reports whether at least a quarter of the neighbouring steps change direction.
+     */
+    static boolean isIrregular(final int[] landscape) {
+        int turns = 0;
+        int steps = 0;
+        long stride = Math.max(SAMPLE_WINDOW_LENGTH, landscape.length / SAMPLE_WINDOWS);
+
+        for (long windowStart = 0; windowStart + SAMPLE_WINDOW_LENGTH <= landscape.length; windowStart += stride) {
+            int previousStep = 0;
+            for (int i = (int) windowStart + 1; i < windowStart + SAMPLE_WINDOW_LENGTH; i++) {
+                int step = Integer.compare(landscape[i], landscape[i - 1]);
+                if (step != 0 && previousStep != 0 && step != previousStep) {
+                    turns++;
+                }
+                if (step != 0) {
+                    previousStep = step;
+                }
+                steps++;
+            }
+        }
+        return steps > 0 && turns * 4 >= steps;
+    }
+
+    /**
+     * Smallest power-of-two length at which {@code candidate} beats the two-pointer pass, {@link Integer#MAX_VALUE} if none.
+     */
+    private static int findCrossover(final int[] calibrationWorld, IWaterPoolSolver candidate) {
+        for (int length = CALIBRATION_MIN_LENGTH; length <= CALIBRATION_MAX_LENGTH; length <<= 1) {
+            int[] world = Arrays.copyOf(calibrationWorld, length);
+            long sequentialNanos = bestOf(() -> SequentialWaterPoolSolver.solve(world, 0, world.length));
+            long candidateNanos = bestOf(() -> candidate.calculateWaterAmount(world));
+            if (candidateNanos < sequentialNanos) {
+                return length;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private static long bestOf(LongSupplier solve) {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            long startTime = System.nanoTime();
+            calibrationChecksum += solve.getAsLong();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - startTime);
+        }
+        return bestNanos;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Splits the landscape at its highest columns like {@link WaterPoolSolver}, but joins the parts with
+ * {@link CompletableFuture} continuations instead of waiting on them: a pool thread only ever runs a part that is ready,
+ * so any number of solves can be in flight on a small pool, e.g. from an event loop.
+ * Sections of at most {@link #SEQUENTIAL_LENGTH} columns are solved in one task by {@link SequentialWaterPoolSolver}.
+ * <p>
+ * Failures, including a rejected submission, complete the future exceptionally.
+ * Narrow, off-heap and run-length landscapes have no asynchronous form; they are solved in parallel by
+ * {@link ParallelPrefixWaterPoolSolver} while the caller waits.
+ */
+@Component
+public class AsyncWaterPoolSolver implements IWaterPoolSolver, IAsyncWaterPoolSolver {
+
+    static final int SEQUENTIAL_LENGTH = 1 << 12;
+    static final int SEARCH_LENGTH_PER_TASK = 1 << 14;
+
+    @Autowired
+    private ForkJoinPool executor;
+
+    @Autowired
+    private ParallelPrefixWaterPoolSolver parallelSolver;
+
+    @Override
+    public CompletableFuture<Long> calculateWaterAmountAsync(int[] landscape) {
+        try {
+            // Landscapes with 0,1,2 lengths are always dry
+            if (landscape.length < 3) {
+                return CompletableFuture.completedFuture(0L);
+            }
+            return calculateWater(landscape, 0, landscape.length, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for {@link #calculateWaterAmountAsync} on the calling thread, which must not be a pool thread.
+     */
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        return join(calculateWaterAmountAsync(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return join(calculateWaterAmountsAsync(landscapes));
+    }
+
+
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Solve failed", e.getCause());
+        }
+    }
+
+    /**
+     * Water of the section {@code [startIndexInclusive, endIndexExclusive)} with the highest columns around it.
+     */
+    private CompletableFuture<Long> calculateWater(final int[] landscape,
+                                                   int startIndexInclusive,
+                                                   int endIndexExclusive,
+                                                   int leftBorderMax,
+                                                   int rightBorderMax) {
+        if (endIndexExclusive - startIndexInclusive <= SEQUENTIAL_LENGTH) {
+            return CompletableFuture.supplyAsync(() -> SequentialWaterPoolSolver.solve(landscape, startIndexInclusive, endIndexExclusive, leftBorderMax, rightBorderMax), executor);
+        }
+
+        return findMaxHeight(landscape, startIndexInclusive, endIndexExclusive).thenCompose(maxPeaks -> {
+            int height = maxPeaks.getHeight();
+            int mostLeftPeak = maxPeaks.getMostLeftPosition();
+            int mostRightPeak = maxPeaks.getMostRightPosition();
+
+            if (rightBorderMax >= height) {
+                return calculateWater(landscape, startIndexInclusive, mostLeftPeak, leftBorderMax, height)
+                        .thenCombine(fillUpTo(landscape, mostLeftPeak + 1, endIndexExclusive, height), Long::sum);
+            }
+            if (leftBorderMax >= height) {
+                return fillUpTo(landscape, startIndexInclusive, mostRightPeak, height)
+                        .thenCombine(calculateWater(landscape, mostRightPeak + 1, endIndexExclusive, height, rightBorderMax), Long::sum);
+            }
+            return calculateWater(landscape, startIndexInclusive, mostLeftPeak, leftBorderMax, height)
+                    .thenCombine(fillUpTo(landscape, mostLeftPeak + 1, mostRightPeak, height), Long::sum)
+                    .thenCombine(calculateWater(landscape, mostRightPeak + 1, endIndexExclusive, height, rightBorderMax), Long::sum);
+        });
+    }
+
+    private CompletableFuture<MaxHeightEntry> findMaxHeight(final int[] landscape, int startIndexInclusive, int endIndexExclusive) {
+        if (endIndexExclusive - startIndexInclusive <= SEARCH_LENGTH_PER_TASK) {
+            return CompletableFuture.supplyAsync(() -> {
+                int maxHeight = landscape[startIndexInclusive];
+                int mostLeftPosition = startIndexInclusive;
+                int mostRightPosition = startIndexInclusive;
+                for (int i = startIndexInclusive + 1; i < endIndexExclusive; i++) {
+                    if (landscape[i] > maxHeight) {
+                        maxHeight = landscape[i];
+                        mostLeftPosition = mostRightPosition = i;
+                    } else if (landscape[i] == maxHeight) {
+                        mostRightPosition = i;
+                    }
+                }
+                return new MaxHeightEntry(maxHeight, mostLeftPosition, mostRightPosition);
+            }, executor);
+        }
+        int middle = (startIndexInclusive + endIndexExclusive) >>> 1;
+        return findMaxHeight(landscape, startIndexInclusive, middle)
+                .thenCombine(findMaxHeight(landscape, middle, endIndexExclusive), MaxHeightEntry::merge);
+    }
+
+    private CompletableFuture<Long> fillUpTo(final int[] landscape, int startIndexInclusive, int endIndexExclusive, int targetHeight) {
+        return CompletableFuture.supplyAsync(() -> {
+            long sum = 0;
+            for (int i = startIndexInclusive; i < endIndexExclusive; i++) {
+                sum += (long) targetHeight - landscape[i];
+            }
+            return sum;
+        }, executor);
+    }
+}
@@ -0,0 +1,186 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Answers where a finite amount of water poured on one column of a landscape ends up.
+ * <p>
+ * The landscape is split the way {@link WaterPoolSolver} splits it: at the leftmost highest column into the part to its left
+ * and the part to its right, and so on inside every part. Every column {@code c} so owns the basin {@code [start, end)} it
+ * is the highest column of, walled by the columns {@code start - 1} and {@code end}, which are never lower than {@code c};
+ * a basin touching an edge of the landscape has no wall there. Water poured into a walled basin never leaves it before the
+ * basin is full up to its lower wall, so a part under {@code c} is either reached, full up to {@code c} and spilling into
+ * the other part, or never reached. The volume a walled basin takes is the water the columns {@code [start - 1, end + 1)}
+ * hold on their own, which {@link RangeWaterIndex} gives in O(1). A pour walks down the basins from the whole landscape
+ * to the one the water stops in, filling or skipping one part per basin, in time proportional to the depth of this tree
+ * and not to the width of the landscape. The tree is about O(log n) deep on random landscapes, but a monotone slope
+ * nests every column in the basin of the next one, so a pour at its foot costs O(n) like a column-by-column walk.
+ * <p>
+ * Water poured on top of a column flows down to the lower neighbour, the left one on a tie, and spills over the column
+ * when both parts under it are full. The landscape must not change after the hierarchy is built.
+ */
+public final class BasinHierarchy {
+    private final int[] mLandscape;
+    private final int mRoot;
+    private final int[] mStart;
+    private final int[] mEnd;
+    private final int[] mLeftPart;
+    private final int[] mRightPart;
+    private final RangeWaterIndex mWaterIndex;
+
+    public BasinHierarchy(int[] landscape) {
+        int length = landscape.length;
+        mLandscape = landscape;
+        mStart = new int[length];
+        mEnd = new int[length];
+        mLeftPart = new int[length];
+        mRightPart = new int[length];
+
+        // Equal columns keep the left one higher in the tree, like the leftmost maximum WaterPoolSolver splits at
+        int[] stack = new int[length];
+        int stackSize = 0;
+        for (int i = 0; i < length; i++) {
+            int lastPopped = -1;
+            while (stackSize > 0 && landscape[stack[stackSize - 1]] < landscape[i]) {
+                lastPopped = stack[--stackSize];
+                mEnd[lastPopped] = i;
+            }
+            mLeftPart[i] = lastPopped;
+            mRightPart[i] = -1;
+            mStart[i] = stackSize == 0 ? 0 : stack[stackSize - 1] + 1;
+            if (stackSize > 0) {
+                mRightPart[stack[stackSize - 1]] = i;
+            }
+            stack[stackSize++] = i;
+        }
+        for (int i = 0; i < stackSize; i++) {
+            mEnd[stack[i]] = length;
+        }
+        mRoot = stackSize == 0 ? -1 : stack[0];
+        mWaterIndex = new RangeWaterIndex(landscape);
+    }
+
+    public int getLength() {
+        return mLandscape.length;
+    }
+
+    /**
+     * Pours {@code volume} units of water on top of column {@code position}.
+     */
+    public FloodResult pour(int position, double volume) {
+        Objects.checkIndex(position, mLandscape.length);
+        if (!(volume >= 0) || Double.isInfinite(volume)) {
+            throw new IllegalArgumentException("Incorrect volume = " + volume + ", should be finite and not negative");
+        }
+
+        List<FloodResult.Surface> surfaces = new ArrayList<>();
+        List<Integer> overflowColumns = new ArrayList<>();
+        double water = volume;
+        double drainedLeft = 0;
+        double drainedRight = 0;
+        int basin = mRoot;
+        int entry = position;
+        while (water > 0) {
+            int start = mStart[basin];
+            int end = mEnd[basin];
+            int top = mLandscape[basin];
+
+            int side = entry < basin ? -1 : entry > basin ? 1 : sideToFlow(basin);
+            if (side == 0) {
+                double overflow = fillWhole(basin, water, surfaces);
+                if (start == 0) {
+                    drainedLeft += overflow;
+                } else {
+                    drainedRight += overflow;
+                }
+                break;
+            }
+
+            int part = side < 0 ? mLeftPart[basin] : mRightPart[basin];
+            int partEntry = entry == basin ? basin + side : entry;
+            if (!isWalled(part) || water < capacity(part)) {
+                basin = part;
+                entry = partEntry;
+                continue;
+            }
+
+            // The part is full up to the top of the basin column and the rest flows over it
+            FloodResult.Surface partSurface = new FloodResult.Surface(mStart[part], mEnd[part], top);
+            water -= capacity(part);
+            overflowColumns.add(basin);
+
+            int otherPart = side < 0 ? mRightPart[basin] : mLeftPart[basin];
+            if (otherPart < 0) {
+                boolean edge = side < 0 ? end == mLandscape.length : start == 0;
+                if (edge) {
+                    surfaces.add(partSurface);
+                    if (side < 0) {
+                        drainedRight += water;
+                    } else {
+                        drainedLeft += water;
+                    }
+                    break;
+                }
+            } else if (!isWalled(otherPart) || water < capacity(otherPart)) {
+                surfaces.add(partSurface);
+                entry = basin - side;
+                basin = otherPart;
+                continue;
+            } else {
+                water -= capacity(otherPart);
+            }
+            // Both parts are full, the whole basin rises above its column
+            fillWhole(basin, water, surfaces);
+            break;
+        }
+
+        surfaces.sort(Comparator.comparingInt(FloodResult.Surface::getStartIndex));
+        return new FloodResult(mLandscape, surfaces, overflowColumns.stream().mapToInt(Integer::intValue).toArray(),
+                drainedLeft, drainedRight, volume - drainedLeft - drainedRight);
+    }
+
+
+
+    /**
+     * Side the water poured on top of {@code column} flows to, or 0 if both neighbours are its walls.
+     */
+    private int sideToFlow(int column) {
+        boolean hasLeft = mLeftPart[column] >= 0;
+        boolean hasRight = mRightPart[column] >= 0;
+        if (hasLeft && (!hasRight || mLandscape[column - 1] <= mLandscape[column + 1])) {
+            return -1;
+        }
+        return hasRight ? 1 : 0;
+    }
+
+    /**
+     * Raises the water over the whole basin of {@code column}, both parts of which are already full, and returns
+     * what runs over its edge. A walled basin never overflows, since it was only entered with less than its capacity,
+     * and an unwalled one gets here only as a single column.
+     */
+    private double fillWhole(int column, double water, List<FloodResult.Surface> surfaces) {
+        if (!isWalled(column)) {
+            return water;
+        }
+        int start = mStart[column];
+        int end = mEnd[column];
+        int top = mLandscape[column];
+        int lowerWall = Math.min(mLandscape[start - 1], mLandscape[end]);
+        surfaces.add(new FloodResult.Surface(start, end, Math.min(lowerWall, top + water / (end - start))));
+        return 0;
+    }
+
+    private boolean isWalled(int column) {
+        return mStart[column] > 0 && mEnd[column] < mLandscape.length;
+    }
+
+    /**
+     * Volume the walled basin of {@code column} holds when full.
+     */
+    private long capacity(int column) {
+        return mWaterIndex.getWaterAmount(mStart[column] - 1, mEnd[column] + 1);
+    }
+}
@@ -0,0 +1,274 @@
+package ru.anmo.waterpool_solver;
+
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Remembers the water amounts of recently solved landscapes.
+ * Landscapes are keyed by a 64-bit content hash and a copy of each landscape is kept to rule out collisions on every hit.
+ * Least recently used entries are evicted once the kept copies exceed {@code maxBytes}.
+ * A repeated landscape costs one hash pass and one vectorized comparison instead of a solve.
+ * <p>
+ * Thread safe; solves run outside the cache lock, so two threads missing on the same landscape both solve it.
+ */
+public class CachingWaterPoolSolver implements IWaterPoolSolver {
+
+    static final long ENTRY_OVERHEAD_BYTES = 96;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+
+    private final IWaterPoolSolver mSolver;
+    private final long mMaxBytes;
+    private final ToLongFunction<int[]> mHashFunction;
+    private final LinkedHashMap<Long, CacheEntry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mCachedBytes;
+
+    private final LongAdder mHitCount = new LongAdder();
+    private final LongAdder mMissCount = new LongAdder();
+    private final LongAdder mCollisionCount = new LongAdder();
+    private final LongAdder mEvictionCount = new LongAdder();
+
+    public CachingWaterPoolSolver(IWaterPoolSolver solver, long maxBytes) {
+        this(solver, maxBytes, CachingWaterPoolSolver::hash);
+    }
+
+    CachingWaterPoolSolver(IWaterPoolSolver solver, long maxBytes, ToLongFunction<int[]> hashFunction) {
+        mSolver = solver;
+        mMaxBytes = maxBytes;
+        mHashFunction = hashFunction;
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        long entryBytes = entryBytes(landscape);
+        if (entryBytes > mMaxBytes) {
+            mMissCount.increment();
+            return mSolver.calculateWaterAmount(landscape);
+        }
+
+        long key = mHashFunction.applyAsLong(landscape);
+        CacheEntry entry = find(key, landscape);
+        if (entry != null) {
+            return entry.mWaterAmount;
+        }
+
+        int[] landscapeCopy = landscape.clone();
+        long waterAmount = mSolver.calculateWaterAmount(landscapeCopy);
+        put(key, landscapeCopy, waterAmount, entryBytes);
+        return waterAmount;
+    }
+
+    /**
+     * Answers the cached landscapes right away and hands all the misses to the engine as one batch.
+     */
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        long[] waterAmounts = new long[landscapes.length];
+        int[] missIndexes = new int[landscapes.length];
+        int[][] misses = new int[landscapes.length][];
+        long[] missKeys = new long[landscapes.length];
+        int missCount = 0;
+
+        for (int i = 0; i < landscapes.length; i++) {
+            int[] landscape = landscapes[i];
+            if (entryBytes(landscape) > mMaxBytes) {
+                mMissCount.increment();
+                misses[missCount] = landscape;
+            }
+            else {
+                long key = mHashFunction.applyAsLong(landscape);
+                CacheEntry entry = find(key, landscape);
+                if (entry != null) {
+                    waterAmounts[i] = entry.mWaterAmount;
+                    continue;
+                }
+                misses[missCount] = landscape.clone();
+                missKeys[missCount] = key;
+            }
+            missIndexes[missCount++] = i;
+        }
+        if (missCount == 0) {
+            return waterAmounts;
+        }
+
+        long[] missWaterAmounts = mSolver.calculateWaterAmounts(Arrays.copyOf(misses, missCount));
+        for (int j = 0; j < missCount; j++) {
+            waterAmounts[missIndexes[j]] = missWaterAmounts[j];
+            long entryBytes = entryBytes(misses[j]);
+            if (entryBytes <= mMaxBytes) {
+                put(missKeys[j], misses[j], missWaterAmounts[j], entryBytes);
+            }
+        }
+        return waterAmounts;
+    }
+
+    @Override
+    public void forEachPool(int[] landscape, PoolConsumer consumer) {
+        mSolver.forEachPool(landscape, consumer);
+    }
+
+    /**
+     * Only {@code int} landscapes are cached, narrow ones go straight to the engine.
+     */
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return mSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return mSolver.calculateWaterAmount(landscape);
+    }
+
+    /**
+     * Off-heap landscapes can be changed in place and are too big to keep a copy of, so they are never cached.
+     */
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return mSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return mSolver.calculateWaterAmount(landscape);
+    }
+
+    public long getHitCount() {
+        return mHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return mMissCount.sum();
+    }
+
+    /**
+     * Hits on the hash whose landscape turned out to differ; they are counted as misses too.
+     */
+    public long getCollisionCount() {
+        return mCollisionCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return mEvictionCount.sum();
+    }
+
+    public long getCachedBytes() {
+        synchronized (mEntries) {
+            return mCachedBytes;
+        }
+    }
+
+    public int getCachedLandscapeCount() {
+        synchronized (mEntries) {
+            return mEntries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (mEntries) {
+            mEntries.clear();
+            mCachedBytes = 0;
+        }
+    }
+
+    /**
+     * Four independent multiply-rotate lanes over the heights, so consecutive multiplications overlap in the pipeline,
+     * folded together with the length and finished with a 64-bit avalanche.
+     */
+    static long hash(final int[] landscape) {
+        long lane1 = PRIME_1;
+        long lane2 = PRIME_2;
+        long lane3 = PRIME_3;
+        long lane4 = PRIME_4;
+
+        int i = 0;
+        for (; i + 4 <= landscape.length; i += 4) {
+            lane1 = Long.rotateLeft(lane1 + landscape[i] * PRIME_2, 31) * PRIME_1;
+            lane2 = Long.rotateLeft(lane2 + landscape[i + 1] * PRIME_2, 31) * PRIME_1;
+            lane3 = Long.rotateLeft(lane3 + landscape[i + 2] * PRIME_2, 31) * PRIME_1;
+            lane4 = Long.rotateLeft(lane4 + landscape[i + 3] * PRIME_2, 31) * PRIME_1;
+        }
+
+        long hash = Long.rotateLeft(lane1, 1) + Long.rotateLeft(lane2, 7) + Long.rotateLeft(lane3, 12) + Long.rotateLeft(lane4, 18);
+        hash += landscape.length;
+        for (; i < landscape.length; i++) {
+            hash = Long.rotateLeft(hash ^ landscape[i] * PRIME_1, 23) * PRIME_2 + PRIME_3;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+
+
+    /**
+     * Entry of {@code landscape} if the cache holds it, a hash collision or an absent key count as a miss.
+     */
+    private CacheEntry find(long key, int[] landscape) {
+        CacheEntry entry;
+        synchronized (mEntries) {
+            entry = mEntries.get(key);
+        }
+        if (entry != null) {
+            if (Arrays.equals(entry.mLandscape, landscape)) {
+                mHitCount.increment();
+                return entry;
+            }
+            mCollisionCount.increment();
+        }
+        mMissCount.increment();
+        return null;
+    }
+
+    /**
+     * Negative amounts are the error results of the engines, e.g. {@link WaterPoolSolver}, and are not remembered.
+     */
+    private void put(long key, int[] landscapeCopy, long waterAmount, long entryBytes) {
+        if (waterAmount < 0) {
+            return;
+        }
+
+        synchronized (mEntries) {
+            CacheEntry replaced = mEntries.put(key, new CacheEntry(landscapeCopy, waterAmount));
+            if (replaced != null) {
+                mCachedBytes -= entryBytes(replaced.mLandscape);
+            }
+            mCachedBytes += entryBytes;
+
+            Iterator<Map.Entry<Long, CacheEntry>> eldest = mEntries.entrySet().iterator();
+            while (mCachedBytes > mMaxBytes && eldest.hasNext()) {
+                mCachedBytes -= entryBytes(eldest.next().getValue().mLandscape);
+                eldest.remove();
+                mEvictionCount.increment();
+            }
+        }
+    }
+
+    private static long entryBytes(int[] landscape) {
+        return (long) landscape.length * Integer.BYTES + ENTRY_OVERHEAD_BYTES;
+    }
+
+    private static class CacheEntry {
+        private final int[] mLandscape;
+        private final long mWaterAmount;
+
+        CacheEntry(int[] landscape, long waterAmount) {
+            mLandscape = landscape;
+            mWaterAmount = waterAmount;
+        }
+    }
+}
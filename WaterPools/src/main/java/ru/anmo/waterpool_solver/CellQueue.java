@@ -0,0 +1,148 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.Arrays;
+
+/**
+ * Min-queue of map cells keyed by water level, on primitive arrays only.
+ * Narrow level ranges use a bucket queue: a linked list of cells per level and a cursor that moves up as buckets drain,
+ * which suits priority-flood since cells are never pushed below the level being drained.
+ * Wide ranges fall back to a binary heap of packed {@code level << 32 | cell} longs.
+ */
+final class CellQueue {
+
+    static final int MIN_BUCKET_RANGE = 1 << 16;
+    static final int MAX_BUCKET_RANGE = 1 << 24;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final int mMinLevel;
+    private final int[] mBucketHeads;
+    private int[] mEntryCells;
+    private int[] mEntryNext;
+    private int mEntryCount;
+    private int mFreeEntry = -1;
+    private int mCursor;
+
+    private long[] mHeap;
+    private int mSize;
+
+    /**
+     * @param expectedCells how many cells the queue is likely to hold at once, used to pick the mode
+     */
+    CellQueue(int minLevel, int maxLevel, int expectedCells) {
+        long range = (long) maxLevel - minLevel + 1;
+        mMinLevel = minLevel;
+        if (range <= MAX_BUCKET_RANGE && range <= Math.max(MIN_BUCKET_RANGE, 4L * expectedCells)) {
+            mBucketHeads = new int[(int) range];
+            Arrays.fill(mBucketHeads, -1);
+            mEntryCells = new int[INITIAL_CAPACITY];
+            mEntryNext = new int[INITIAL_CAPACITY];
+        } else {
+            mBucketHeads = null;
+            mHeap = new long[INITIAL_CAPACITY];
+        }
+    }
+
+    boolean isBucketQueue() {
+        return mBucketHeads != null;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    void push(int level, int cell) {
+        mSize++;
+        if (mBucketHeads == null) {
+            pushToHeap((long) level << 32 | (cell & 0xFFFFFFFFL));
+            return;
+        }
+
+        int entry;
+        if (mFreeEntry >= 0) {
+            entry = mFreeEntry;
+            mFreeEntry = mEntryNext[entry];
+        } else {
+            if (mEntryCount == mEntryCells.length) {
+                mEntryCells = Arrays.copyOf(mEntryCells, 2 * mEntryCount);
+                mEntryNext = Arrays.copyOf(mEntryNext, 2 * mEntryCount);
+            }
+            entry = mEntryCount++;
+        }
+        int bucket = level - mMinLevel;
+        mEntryCells[entry] = cell;
+        mEntryNext[entry] = mBucketHeads[bucket];
+        mBucketHeads[bucket] = entry;
+        if (bucket < mCursor) {
+            mCursor = bucket;
+        }
+    }
+
+    /**
+     * Removes the cell with the lowest level and returns it packed as {@code level << 32 | cell}.
+     */
+    long pop() {
+        mSize--;
+        if (mBucketHeads == null) {
+            return popFromHeap();
+        }
+
+        while (mBucketHeads[mCursor] < 0) {
+            mCursor++;
+        }
+        int entry = mBucketHeads[mCursor];
+        mBucketHeads[mCursor] = mEntryNext[entry];
+        int cell = mEntryCells[entry];
+        mEntryNext[entry] = mFreeEntry;
+        mFreeEntry = entry;
+        return (long) (mCursor + mMinLevel) << 32 | (cell & 0xFFFFFFFFL);
+    }
+
+    static int level(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int cell(long entry) {
+        return (int) entry;
+    }
+
+
+
+    private void pushToHeap(long key) {
+        if (mSize > mHeap.length) {
+            mHeap = Arrays.copyOf(mHeap, 2 * mHeap.length);
+        }
+        int i = mSize - 1;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (mHeap[parent] <= key) {
+                break;
+            }
+            mHeap[i] = mHeap[parent];
+            i = parent;
+        }
+        mHeap[i] = key;
+    }
+
+    private long popFromHeap() {
+        long top = mHeap[0];
+        long last = mHeap[mSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= mSize) {
+                break;
+            }
+            if (child + 1 < mSize && mHeap[child + 1] < mHeap[child]) {
+                child++;
+            }
+            if (last <= mHeap[child]) {
+                break;
+            }
+            mHeap[i] = mHeap[child];
+            i = child;
+        }
+        mHeap[i] = last;
+        return top;
+    }
+}
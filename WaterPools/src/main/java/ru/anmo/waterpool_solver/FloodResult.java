@@ -0,0 +1,110 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Where a finite amount of water poured by {@link BasinHierarchy#pour} ends up.
+ * The water stands in non-overlapping {@link Surface}s; whatever does not fit runs off an edge of the landscape.
+ */
+public final class FloodResult {
+    private final int[] mLandscape;
+    private final List<Surface> mSurfaces;
+    private final int[] mOverflowColumns;
+    private final double mDrainedLeft;
+    private final double mDrainedRight;
+    private final double mRetainedVolume;
+
+    FloodResult(int[] landscape, List<Surface> surfaces, int[] overflowColumns, double drainedLeft, double drainedRight, double retainedVolume) {
+        mLandscape = landscape;
+        mSurfaces = Collections.unmodifiableList(surfaces);
+        mOverflowColumns = overflowColumns;
+        mDrainedLeft = drainedLeft;
+        mDrainedRight = drainedRight;
+        mRetainedVolume = retainedVolume;
+    }
+
+    /**
+     * Water surfaces from left to right.
+     */
+    public List<Surface> getSurfaces() {
+        return mSurfaces;
+    }
+
+    /**
+     * Columns the water flowed over on its way, in the order it reached them.
+     */
+    public int[] getOverflowColumns() {
+        return mOverflowColumns.clone();
+    }
+
+    public double getDrainedLeft() {
+        return mDrainedLeft;
+    }
+
+    public double getDrainedRight() {
+        return mDrainedRight;
+    }
+
+    public double getRetainedVolume() {
+        return mRetainedVolume;
+    }
+
+    /**
+     * Depth of the water standing on {@code column}.
+     */
+    public double getWaterDepth(int column) {
+        int low = 0;
+        int high = mSurfaces.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Surface surface = mSurfaces.get(middle);
+            if (column < surface.mStartIndex) {
+                high = middle - 1;
+            } else if (column >= surface.mEndIndex) {
+                low = middle + 1;
+            } else {
+                return Math.max(0, surface.mLevel - mLandscape[column]);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FloodResult[surfaces = " + mSurfaces + ", retained = " + mRetainedVolume
+                + ", drained left = " + mDrainedLeft + ", drained right = " + mDrainedRight + "]";
+    }
+
+    /**
+     * Water standing at {@code level} over the columns {@code [startIndex, endIndex)} lower than it.
+     */
+    public static final class Surface {
+        private final int mStartIndex;
+        private final int mEndIndex;
+        private final double mLevel;
+
+        Surface(int startIndexInclusive, int endIndexExclusive, double level) {
+            mStartIndex = startIndexInclusive;
+            mEndIndex = endIndexExclusive;
+            mLevel = level;
+        }
+
+        public int getStartIndex() {
+            return mStartIndex;
+        }
+
+        public int getEndIndex() {
+            return mEndIndex;
+        }
+
+        public double getLevel() {
+            return mLevel;
+        }
+
+        @Override
+        public String toString() {
+            return "Surface[" + mStartIndex + ", " + mEndIndex + "), level = " + mLevel;
+        }
+    }
+}
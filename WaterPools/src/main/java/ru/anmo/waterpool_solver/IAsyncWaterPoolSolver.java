@@ -0,0 +1,27 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Solver that never blocks the calling thread: the result, or the failure, arrives through the returned future.
+ */
+public interface IAsyncWaterPoolSolver {
+    CompletableFuture<Long> calculateWaterAmountAsync(int[] landscape);
+
+    default CompletableFuture<long[]> calculateWaterAmountsAsync(int[][] landscapes) {
+        List<CompletableFuture<Long>> waterAmounts = new ArrayList<>(landscapes.length);
+        for (int[] landscape : landscapes) {
+            waterAmounts.add(calculateWaterAmountAsync(landscape));
+        }
+        // Every future is done when allOf completes, so join never waits here
+        return CompletableFuture.allOf(waterAmounts.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            long[] result = new long[waterAmounts.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = waterAmounts.get(i).join();
+            }
+            return result;
+        });
+    }
+}
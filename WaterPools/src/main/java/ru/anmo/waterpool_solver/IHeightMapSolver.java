@@ -0,0 +1,28 @@
+package ru.anmo.waterpool_solver;
+
+/**
+ * Solver for 2D height maps. Maps are stored row-major, the column at {@code (x, y)} is {@code heights[y * width + x]},
+ * and water runs off every edge of the map.
+ */
+public interface IHeightMapSolver {
+    long calculateWaterAmount(int[] heights, int width);
+
+    default long calculateWaterAmount(int[][] heightMap) {
+        if (heightMap.length == 0) {
+            return 0;
+        }
+        int width = heightMap[0].length;
+        if ((long) width * heightMap.length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Height map of " + heightMap.length + " x " + width + " columns is too big");
+        }
+
+        int[] heights = new int[width * heightMap.length];
+        for (int y = 0; y < heightMap.length; y++) {
+            if (heightMap[y].length != width) {
+                throw new IllegalArgumentException("Row " + y + " has " + heightMap[y].length + " columns, expected " + width);
+            }
+            System.arraycopy(heightMap[y], 0, heights, y * width, width);
+        }
+        return calculateWaterAmount(heights, width);
+    }
+}
@@ -1,5 +1,87 @@
 package ru.anmo.waterpool_solver;
 
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.NarrowWorld;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
 public interface IWaterPoolSolver {
     long calculateWaterAmount(int[] landscape);
+
+    /**
+     * Reports every pool of the landscape to {@code consumer} while solving it, in no particular order.
+     * Parallel solvers call the consumer from several threads at once.
+     */
+    default void forEachPool(int[] landscape, PoolConsumer consumer) {
+        SequentialWaterPoolSolver.forEachPool(landscape, 0, landscape.length, Integer.MIN_VALUE, Integer.MIN_VALUE, consumer);
+    }
+
+    /**
+     * All pools of the landscape, from left to right.
+     */
+    default List<WaterPool> findPools(int[] landscape) {
+        List<WaterPool> pools = new ArrayList<>();
+        List<WaterPool> collector = Collections.synchronizedList(pools);
+        forEachPool(landscape, (startIndex, endIndex, level, volume) -> collector.add(new WaterPool(startIndex, endIndex, level, volume)));
+        pools.sort(Comparator.comparingInt(WaterPool::getStartIndex));
+        return pools;
+    }
+
+    /**
+     * Narrow, off-heap and run-length landscapes take the two-pointer pass on the calling thread by default;
+     * parallel engines override these methods.
+     */
+    default long calculateWaterAmount(short[] landscape) {
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+
+    default long calculateWaterAmount(byte[] landscape) {
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+
+    default long calculateWaterAmount(NarrowWorld world) {
+        return switch (world.getHeightWidth()) {
+            case BYTE -> calculateWaterAmount(world.getBytes());
+            case SHORT -> calculateWaterAmount(world.getShorts());
+            case INT -> calculateWaterAmount(world.getInts());
+        };
+    }
+
+    /**
+     * Solves a landscape stored outside the heap, see {@link MappedWaterPoolSolver} for the parallel version.
+     */
+    default long calculateWaterAmount(Landscape landscape) {
+        return SequentialWaterPoolSolver.solve(landscape);
+    }
+
+    /**
+     * Solves a run-length-encoded landscape in time linear in the number of runs, without expanding it.
+     */
+    default long calculateWaterAmount(RunLengthLandscape landscape) {
+        return SequentialWaterPoolSolver.solve(landscape);
+    }
+
+    default long[] calculateWaterAmounts(int[][] landscapes) {
+        long[] waterAmounts = new long[landscapes.length];
+        for (int i = 0; i < landscapes.length; i++) {
+            waterAmounts[i] = calculateWaterAmount(landscapes[i]);
+        }
+        return waterAmounts;
+    }
+
+    default long[] calculateWaterAmounts(List<int[]> landscapes) {
+        return calculateWaterAmounts(landscapes.toArray(new int[0][]));
+    }
+
+    @FunctionalInterface
+    interface PoolConsumer {
+        /**
+         * Receives the pool {@code [startIndex, endIndex)} filled up to {@code level} and holding {@code volume} of water.
+         */
+        void accept(int startIndex, int endIndex, int level, long volume);
+    }
 }
@@ -0,0 +1,286 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.Objects;
+
+/**
+ * Landscape that keeps its water amount up to date while columns change.
+ * <p>
+ * Heights live in a segment tree. Every node keeps the {@link MaxHeightEntry} of its section, the sum of its heights,
+ * and two filled sums: its right child under the running maximum of its left child, and its left child under the
+ * running maximum of its right child. Water of a section {@code [l, r)} with leftmost peak {@code p} and rightmost
+ * peak {@code q} is then
+ * <pre>
+ *     prefixMaxSum(l, p) + peakHeight * (q - p + 1) + suffixMaxSum(q + 1, r) - heightSum(l, r)
+ * </pre>
+ * and both running-maximum sums are answered by walking down one branch of the tree per covering node.
+ * Point and range updates, and queries over any section, take O(log<sup>2</sup> n) instead of a full O(n) re-solve.
+ * <p>
+ * Not thread safe: queries push pending range updates down the tree.
+ */
+public final class IncrementalWaterPoolSolver {
+
+    private static final int MAX_COVERING_NODES = 64;
+
+    private final int mLength;
+    private final int[] mMaxHeight;
+    private final int[] mMostLeftPosition;
+    private final int[] mMostRightPosition;
+    private final long[] mHeightSum;
+    private final long[] mRightFilledSum;
+    private final long[] mLeftFilledSum;
+    private final boolean[] mAssigned;
+
+    public IncrementalWaterPoolSolver(int[] landscape) {
+        mLength = landscape.length;
+        long nodeCount = 2L * Math.max(1, Long.highestOneBit(Math.max(1, mLength - 1)) * 2);
+        if (nodeCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Landscape of " + mLength + " columns is too long for an incremental solver");
+        }
+
+        mMaxHeight = new int[(int) nodeCount];
+        mMostLeftPosition = new int[(int) nodeCount];
+        mMostRightPosition = new int[(int) nodeCount];
+        mHeightSum = new long[(int) nodeCount];
+        mRightFilledSum = new long[(int) nodeCount];
+        mLeftFilledSum = new long[(int) nodeCount];
+        mAssigned = new boolean[(int) nodeCount];
+
+        if (mLength > 0) {
+            build(landscape, 1, 0, mLength);
+        }
+    }
+
+    public int getLength() {
+        return mLength;
+    }
+
+    public int getHeight(int index) {
+        Objects.checkIndex(index, mLength);
+        int node = 1;
+        int lo = 0;
+        int hi = mLength;
+        while (hi - lo > 1 && !mAssigned[node]) {
+            int mid = (lo + hi) >>> 1;
+            if (index < mid) {
+                node = 2 * node;
+                hi = mid;
+            } else {
+                node = 2 * node + 1;
+                lo = mid;
+            }
+        }
+        return mMaxHeight[node];
+    }
+
+    public void update(int index, int height) {
+        Objects.checkIndex(index, mLength);
+        assign(1, 0, mLength, index, index + 1, height);
+    }
+
+    /**
+     * Sets every column of {@code [startIndexInclusive, endIndexExclusive)} to {@code height}.
+     */
+    public void update(int startIndexInclusive, int endIndexExclusive, int height) {
+        Objects.checkFromToIndex(startIndexInclusive, endIndexExclusive, mLength);
+        if (startIndexInclusive < endIndexExclusive) {
+            assign(1, 0, mLength, startIndexInclusive, endIndexExclusive, height);
+        }
+    }
+
+    public long getWaterAmount() {
+        return getWaterAmount(0, mLength);
+    }
+
+    /**
+     * Water held by the section {@code [startIndexInclusive, endIndexExclusive)} taken on its own,
+     * as if the columns outside of it did not exist.
+     */
+    public long getWaterAmount(int startIndexInclusive, int endIndexExclusive) {
+        Objects.checkFromToIndex(startIndexInclusive, endIndexExclusive, mLength);
+        // Landscapes with 0,1,2 lengths are always dry
+        if (endIndexExclusive - startIndexInclusive < 3) {
+            return 0;
+        }
+
+        int[] covering = new int[3 * MAX_COVERING_NODES];
+        int count = collect(1, 0, mLength, startIndexInclusive, endIndexExclusive, covering, 0);
+
+        MaxHeightEntry peak = MaxHeightEntry.EMPTY;
+        long heightSum = 0;
+        for (int i = 0; i < count; i++) {
+            int node = covering[3 * i];
+            peak = MaxHeightEntry.merge(peak, new MaxHeightEntry(mMaxHeight[node], mMostLeftPosition[node], mMostRightPosition[node]));
+            heightSum += mHeightSum[node];
+        }
+
+        long filledSum = (long) peak.getHeight() * (peak.getMostRightPosition() - peak.getMostLeftPosition() + 1);
+
+        count = collect(1, 0, mLength, startIndexInclusive, peak.getMostLeftPosition(), covering, 0);
+        int carry = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int node = covering[3 * i];
+            filledSum += prefixFilledSum(node, covering[3 * i + 1], covering[3 * i + 2], carry);
+            carry = Math.max(carry, mMaxHeight[node]);
+        }
+
+        count = collect(1, 0, mLength, peak.getMostRightPosition() + 1, endIndexExclusive, covering, 0);
+        carry = Integer.MIN_VALUE;
+        for (int i = count - 1; i >= 0; i--) {
+            int node = covering[3 * i];
+            filledSum += suffixFilledSum(node, covering[3 * i + 1], covering[3 * i + 2], carry);
+            carry = Math.max(carry, mMaxHeight[node]);
+        }
+
+        return filledSum - heightSum;
+    }
+
+
+
+    private void build(final int[] landscape, int node, int lo, int hi) {
+        if (hi - lo == 1) {
+            setUniform(node, lo, hi, landscape[lo]);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        build(landscape, 2 * node, lo, mid);
+        build(landscape, 2 * node + 1, mid, hi);
+        pull(node, lo, hi);
+    }
+
+    private void assign(int node, int lo, int hi, int from, int to, int height) {
+        if (from <= lo && hi <= to) {
+            setUniform(node, lo, hi, height);
+            return;
+        }
+        push(node, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        if (from < mid) {
+            assign(2 * node, lo, mid, from, to, height);
+        }
+        if (to > mid) {
+            assign(2 * node + 1, mid, hi, from, to, height);
+        }
+        pull(node, lo, hi);
+    }
+
+    /**
+     * Writes the nodes exactly covering {@code [from, to)} into {@code covering} as (node, lo, hi) triples,
+     * from left to right, and returns their count.
+     */
+    private int collect(int node, int lo, int hi, int from, int to, int[] covering, int count) {
+        if (from >= to) {
+            return count;
+        }
+        if (from <= lo && hi <= to) {
+            covering[3 * count] = node;
+            covering[3 * count + 1] = lo;
+            covering[3 * count + 2] = hi;
+            return count + 1;
+        }
+        push(node, lo, hi);
+        int mid = (lo + hi) >>> 1;
+        if (from < mid) {
+            count = collect(2 * node, lo, mid, from, to, covering, count);
+        }
+        if (to > mid) {
+            count = collect(2 * node + 1, mid, hi, from, to, covering, count);
+        }
+        return count;
+    }
+
+    /**
+     * Sum of running maxima over the node's section, read from left to right, starting from {@code carry}.
+     */
+    private long prefixFilledSum(int node, int lo, int hi, int carry) {
+        long sum = 0;
+        while (true) {
+            if (carry >= mMaxHeight[node]) {
+                return sum + (long) carry * (hi - lo);
+            }
+            if (hi - lo == 1 || mAssigned[node]) {
+                return sum + (long) mMaxHeight[node] * (hi - lo);
+            }
+            int mid = (lo + hi) >>> 1;
+            if (carry >= mMaxHeight[2 * node]) {
+                sum += (long) carry * (mid - lo);
+                node = 2 * node + 1;
+                lo = mid;
+            } else {
+                sum += mRightFilledSum[node];
+                node = 2 * node;
+                hi = mid;
+            }
+        }
+    }
+
+    /**
+     * Sum of running maxima over the node's section, read from right to left, starting from {@code carry}.
+     */
+    private long suffixFilledSum(int node, int lo, int hi, int carry) {
+        long sum = 0;
+        while (true) {
+            if (carry >= mMaxHeight[node]) {
+                return sum + (long) carry * (hi - lo);
+            }
+            if (hi - lo == 1 || mAssigned[node]) {
+                return sum + (long) mMaxHeight[node] * (hi - lo);
+            }
+            int mid = (lo + hi) >>> 1;
+            if (carry >= mMaxHeight[2 * node + 1]) {
+                sum += (long) carry * (hi - mid);
+                node = 2 * node;
+                hi = mid;
+            } else {
+                sum += mLeftFilledSum[node];
+                node = 2 * node + 1;
+                lo = mid;
+            }
+        }
+    }
+
+    private void setUniform(int node, int lo, int hi, int height) {
+        mMaxHeight[node] = height;
+        mMostLeftPosition[node] = lo;
+        mMostRightPosition[node] = hi - 1;
+        mHeightSum[node] = (long) height * (hi - lo);
+        if (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            mRightFilledSum[node] = (long) height * (hi - mid);
+            mLeftFilledSum[node] = (long) height * (mid - lo);
+            mAssigned[node] = true;
+        }
+    }
+
+    private void push(int node, int lo, int hi) {
+        if (!mAssigned[node]) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        setUniform(2 * node, lo, mid, mMaxHeight[node]);
+        setUniform(2 * node + 1, mid, hi, mMaxHeight[node]);
+        mAssigned[node] = false;
+    }
+
+    private void pull(int node, int lo, int hi) {
+        int left = 2 * node;
+        int right = 2 * node + 1;
+        int mid = (lo + hi) >>> 1;
+
+        if (mMaxHeight[left] > mMaxHeight[right]) {
+            mMaxHeight[node] = mMaxHeight[left];
+            mMostLeftPosition[node] = mMostLeftPosition[left];
+            mMostRightPosition[node] = mMostRightPosition[left];
+        } else if (mMaxHeight[left] < mMaxHeight[right]) {
+            mMaxHeight[node] = mMaxHeight[right];
+            mMostLeftPosition[node] = mMostLeftPosition[right];
+            mMostRightPosition[node] = mMostRightPosition[right];
+        } else {
+            mMaxHeight[node] = mMaxHeight[left];
+            mMostLeftPosition[node] = mMostLeftPosition[left];
+            mMostRightPosition[node] = mMostRightPosition[right];
+        }
+        mHeightSum[node] = mHeightSum[left] + mHeightSum[right];
+        mRightFilledSum[node] = prefixFilledSum(right, mid, hi, mMaxHeight[left]);
+        mLeftFilledSum[node] = suffixFilledSum(left, lo, mid, mMaxHeight[right]);
+    }
+}
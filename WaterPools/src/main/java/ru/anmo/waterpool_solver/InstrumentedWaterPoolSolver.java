@@ -0,0 +1,84 @@
+package ru.anmo.waterpool_solver;
+
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Times every single-landscape solve of the wrapped solver into {@link SolverMetrics} and a {@link SolveEvent}.
+ * Batches and pool reports go straight to the wrapped solver.
+ */
+final class InstrumentedWaterPoolSolver implements IWaterPoolSolver {
+
+    private final IWaterPoolSolver mSolver;
+    private final SolverMetrics mMetrics;
+
+    InstrumentedWaterPoolSolver(IWaterPoolSolver solver, SolverMetrics metrics) {
+        mSolver = solver;
+        mMetrics = metrics;
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        return record(landscape.length, () -> mSolver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return record(landscape.length, () -> mSolver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return record(landscape.length, () -> mSolver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return record(landscape.getLength(), () -> mSolver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return record(landscape.getLength(), () -> mSolver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return mSolver.calculateWaterAmounts(landscapes);
+    }
+
+    @Override
+    public void forEachPool(int[] landscape, PoolConsumer consumer) {
+        mSolver.forEachPool(landscape, consumer);
+    }
+
+    @Override
+    public List<WaterPool> findPools(int[] landscape) {
+        return mSolver.findPools(landscape);
+    }
+
+
+
+    private long record(long landscapeLength, LongSupplier solve) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long executorQueueDepth = mMetrics.sampleExecutorQueueDepth();
+        long startTime = System.nanoTime();
+
+        long waterAmount = solve.getAsLong();
+
+        mMetrics.recordSolve(landscapeLength, System.nanoTime() - startTime);
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = mSolver.getClass().getSimpleName();
+            event.landscapeLength = landscapeLength;
+            event.waterAmount = waterAmount;
+            event.executorQueueDepth = executorQueueDepth;
+            event.commit();
+        }
+        return waterAmount;
+    }
+}
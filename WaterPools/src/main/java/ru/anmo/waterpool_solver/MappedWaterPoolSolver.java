@@ -0,0 +1,158 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Solver for {@link Landscape}s kept outside the heap: mapped from files by {@link ru.anmo.world_generator.ILandscapeStorage}
+ * or allocated in a {@link ru.anmo.world_generator.LandscapeArena}.
+ * Heights are read straight from the segments, nothing is copied to the heap.
+ * The landscape is cut into blocks inside segments: one parallel pass finds block maxima,
+ * a second one solves every block with the two-pointer pass bounded by the maxima around it.
+ */
+@Component
+public class MappedWaterPoolSolver implements IWaterPoolSolver {
+
+    static final int LENGTH_PER_TASK = 1 << 22;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.length < 3) {
+            return 0;
+        }
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.getLength() < 3) {
+            return 0;
+        }
+
+        // Segments need not be a multiple of the block length, so the last block of every segment may be shorter
+        int blockLength = Math.min(LENGTH_PER_TASK, landscape.getColumnsPerSegment());
+        int blocksPerSegment = (landscape.getColumnsPerSegment() + blockLength - 1) / blockLength;
+        int lastSegment = landscape.getSegmentCount() - 1;
+        int blockCount = lastSegment * blocksPerSegment
+                + (landscape.getSegmentLength(lastSegment) + blockLength - 1) / blockLength;
+
+        int[] blockSegments = new int[blockCount];
+        int[] blockStarts = new int[blockCount];
+        int[] blockEnds = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            int segment = block / blocksPerSegment;
+            blockSegments[block] = segment;
+            blockStarts[block] = (block % blocksPerSegment) * blockLength;
+            blockEnds[block] = Math.min(blockStarts[block] + blockLength, landscape.getSegmentLength(segment));
+        }
+
+        try (Landscape.Reader reader = landscape.read()) {
+            return solve(reader, blockSegments, blockStarts, blockEnds);
+        }
+    }
+
+
+
+    private long solve(Landscape.Reader reader, int[] blockSegments, int[] blockStarts, int[] blockEnds) {
+        int blockCount = blockSegments.length;
+        int[] blockMaxHeights = new int[blockCount];
+        pool.invoke(new BlockTask(0, blockCount, block -> blockMaxHeights[block] =
+                findMaxHeight(reader, blockSegments[block], blockStarts[block], blockEnds[block])));
+
+        int[] leftBorderMax = new int[blockCount];
+        int[] rightBorderMax = new int[blockCount];
+        leftBorderMax[0] = Integer.MIN_VALUE;
+        for (int block = 1; block < blockCount; block++) {
+            leftBorderMax[block] = Math.max(leftBorderMax[block - 1], blockMaxHeights[block - 1]);
+        }
+        rightBorderMax[blockCount - 1] = Integer.MIN_VALUE;
+        for (int block = blockCount - 2; block >= 0; block--) {
+            rightBorderMax[block] = Math.max(rightBorderMax[block + 1], blockMaxHeights[block + 1]);
+        }
+
+        long[] blockWater = new long[blockCount];
+        pool.invoke(new BlockTask(0, blockCount, block -> blockWater[block] =
+                solve(reader, blockSegments[block], blockStarts[block], blockEnds[block], leftBorderMax[block], rightBorderMax[block])));
+
+        long sum = 0;
+        for (long water : blockWater) {
+            sum += water;
+        }
+        return sum;
+    }
+
+    private static int findMaxHeight(Landscape.Reader reader, int segment, int startIndexInclusive, int endIndexExclusive) {
+        int maxHeight = Integer.MIN_VALUE;
+        for (int i = startIndexInclusive; i < endIndexExclusive; i++) {
+            maxHeight = Math.max(maxHeight, reader.heightAt(segment, i));
+        }
+        return maxHeight;
+    }
+
+    private static long solve(Landscape.Reader reader,
+                              int segment,
+                              int startIndexInclusive,
+                              int endIndexExclusive,
+                              int leftBorderMax,
+                              int rightBorderMax) {
+        int left = startIndexInclusive;
+        int right = endIndexExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        long sum = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = reader.heightAt(segment, left++);
+                if (height > leftMax) {
+                    leftMax = height;
+                } else {
+                    sum += (long) leftMax - height;
+                }
+            } else {
+                int height = reader.heightAt(segment, right--);
+                if (height > rightMax) {
+                    rightMax = height;
+                } else {
+                    sum += (long) rightMax - height;
+                }
+            }
+        }
+        return sum;
+    }
+
+
+
+
+    private static class BlockTask extends RecursiveAction {
+        private final int mStartBlock;
+        private final int mEndBlock;
+        private final IntConsumer mBlockAction;
+
+        BlockTask(int startBlockInclusive, int endBlockExclusive, IntConsumer blockAction) {
+            mStartBlock = startBlockInclusive;
+            mEndBlock = endBlockExclusive;
+            mBlockAction = blockAction;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEndBlock - mStartBlock == 1) {
+                mBlockAction.accept(mStartBlock);
+                return;
+            }
+            int middle = (mStartBlock + mEndBlock) >>> 1;
+            invokeAll(new BlockTask(mStartBlock, middle, mBlockAction), new BlockTask(middle, mEndBlock, mBlockAction));
+        }
+    }
+}
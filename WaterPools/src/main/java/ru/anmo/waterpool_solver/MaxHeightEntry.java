@@ -0,0 +1,46 @@
+package ru.anmo.waterpool_solver;
+
+/**
+ * Highest column of a landscape section together with its leftmost and rightmost positions.
+ */
+final class MaxHeightEntry {
+
+    /**
+     * Identity of {@link #merge}: the maximum of an empty section.
+     */
+    static final MaxHeightEntry EMPTY = new MaxHeightEntry(Integer.MIN_VALUE, Integer.MAX_VALUE, -1);
+
+    private final int mHeight;
+    private final int mMostLeftPosition;
+    private final int mMostRightPosition;
+
+    MaxHeightEntry(int height, int mostLeftPosition, int mostRightPosition) {
+        mHeight = height;
+        mMostLeftPosition = mostLeftPosition;
+        mMostRightPosition = mostRightPosition;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getMostLeftPosition() {
+        return mMostLeftPosition;
+    }
+
+    public int getMostRightPosition() {
+        return mMostRightPosition;
+    }
+
+    /**
+     * Maximum of two sections. The sections may come in any order and need not be adjacent.
+     */
+    static MaxHeightEntry merge(MaxHeightEntry first, MaxHeightEntry second) {
+        if (first.mHeight != second.mHeight) {
+            return first.mHeight > second.mHeight ? first : second;
+        }
+        return new MaxHeightEntry(first.mHeight,
+                Math.min(first.mMostLeftPosition, second.mMostLeftPosition),
+                Math.max(first.mMostRightPosition, second.mMostRightPosition));
+    }
+}
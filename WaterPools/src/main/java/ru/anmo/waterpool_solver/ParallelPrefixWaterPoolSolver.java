@@ -0,0 +1,349 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Fork/join solver built on chunked prefix maxima.
+ * The up-sweep builds a tree of chunk maxima, the down-sweep hands every chunk the highest column
+ * on its left and on its right, so each chunk is solved independently by the two-pointer pass.
+ * Every column is read once per sweep and no task ever blocks waiting for another.
+ * <p>
+ * Narrow and run-length landscapes are cut into chunks of {@link #LENGTH_PER_TASK} columns or runs, whose maxima give
+ * every chunk its borders, and off-heap ones go to {@link MappedWaterPoolSolver}; the other parallel engines hand
+ * these inputs over to this solver.
+ */
+@Component
+public class ParallelPrefixWaterPoolSolver implements IWaterPoolSolver {
+
+    static final int LENGTH_PER_TASK = 1 << 16;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    @Autowired
+    private MappedWaterPoolSolver offHeapSolver;
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.length < 3) {
+            return 0;
+        }
+        if (landscape.length <= LENGTH_PER_TASK) {
+            return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+        }
+
+        MaxHeightNode root = pool.invoke(new MaxHeightSweep(landscape, 0, landscape.length));
+        return pool.invoke(new WaterSweep(landscape, root, Integer.MIN_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        if (landscape.length <= LENGTH_PER_TASK) {
+            return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+        }
+        return solveChunks(landscape.length,
+                (startIndex, endIndex) -> {
+                    int maxHeight = 0;
+                    for (int i = startIndex; i < endIndex; i++) {
+                        maxHeight = Math.max(maxHeight, landscape[i] & 0xFFFF);
+                    }
+                    return maxHeight;
+                },
+                (startIndex, endIndex, leftBorderMax, rightBorderMax) ->
+                        SequentialWaterPoolSolver.solve(landscape, startIndex, endIndex, leftBorderMax, rightBorderMax));
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        if (landscape.length <= LENGTH_PER_TASK) {
+            return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+        }
+        return solveChunks(landscape.length,
+                (startIndex, endIndex) -> {
+                    int maxHeight = 0;
+                    for (int i = startIndex; i < endIndex; i++) {
+                        maxHeight = Math.max(maxHeight, landscape[i] & 0xFF);
+                    }
+                    return maxHeight;
+                },
+                (startIndex, endIndex, leftBorderMax, rightBorderMax) ->
+                        SequentialWaterPoolSolver.solve(landscape, startIndex, endIndex, leftBorderMax, rightBorderMax));
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return offHeapSolver.calculateWaterAmount(landscape);
+    }
+
+    /**
+     * Chunks are counted in runs, since a run costs one step whatever its length.
+     */
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        if (landscape.getRunCount() <= LENGTH_PER_TASK) {
+            return SequentialWaterPoolSolver.solve(landscape);
+        }
+        return solveChunks(landscape.getRunCount(),
+                (startRun, endRun) -> {
+                    int maxHeight = Integer.MIN_VALUE;
+                    for (int run = startRun; run < endRun; run++) {
+                        maxHeight = Math.max(maxHeight, landscape.getHeight(run));
+                    }
+                    return maxHeight;
+                },
+                (startRun, endRun, leftBorderMax, rightBorderMax) ->
+                        SequentialWaterPoolSolver.solve(landscape, startRun, endRun, leftBorderMax, rightBorderMax));
+    }
+
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return WaterPoolBatch.solve(pool, landscapes);
+    }
+
+    /**
+     * Chunks report their inner pools straight away and hand the pools touching their ends up to the join,
+     * where pools meeting at a chunk border are stitched into one.
+     */
+    @Override
+    public void forEachPool(int[] landscape, PoolConsumer consumer) {
+        if (landscape.length <= LENGTH_PER_TASK) {
+            SequentialWaterPoolSolver.forEachPool(landscape, 0, landscape.length, Integer.MIN_VALUE, Integer.MIN_VALUE, consumer);
+            return;
+        }
+
+        MaxHeightNode root = pool.invoke(new MaxHeightSweep(landscape, 0, landscape.length));
+        EdgePools edgePools = pool.invoke(new PoolSweep(landscape, root, Integer.MIN_VALUE, Integer.MIN_VALUE, consumer));
+        if (edgePools.mHead != null) {
+            report(edgePools.mHead, consumer);
+        }
+        if (edgePools.mTail != null && !edgePools.isWhole()) {
+            report(edgePools.mTail, consumer);
+        }
+    }
+
+
+
+
+    /**
+     * Two flat sweeps over chunks of {@code length} columns: one finds the chunk maxima, one solves every chunk
+     * between the highest columns on either side of it.
+     */
+    private long solveChunks(int length, IntBinaryOperator chunkMaxHeight, SectionSolver sectionSolver) {
+        int chunkCount = (int) (((long) length + LENGTH_PER_TASK - 1) / LENGTH_PER_TASK);
+        int[] chunkMaxHeights = new int[chunkCount];
+        pool.submit(() -> IntStream.range(0, chunkCount).parallel()
+                .forEach(chunk -> chunkMaxHeights[chunk] = chunkMaxHeight.applyAsInt(chunkStart(chunk), chunkEnd(chunk, length)))).join();
+
+        int[] leftBorderMax = new int[chunkCount];
+        int[] rightBorderMax = new int[chunkCount];
+        leftBorderMax[0] = Integer.MIN_VALUE;
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            leftBorderMax[chunk] = Math.max(leftBorderMax[chunk - 1], chunkMaxHeights[chunk - 1]);
+        }
+        rightBorderMax[chunkCount - 1] = Integer.MIN_VALUE;
+        for (int chunk = chunkCount - 2; chunk >= 0; chunk--) {
+            rightBorderMax[chunk] = Math.max(rightBorderMax[chunk + 1], chunkMaxHeights[chunk + 1]);
+        }
+
+        return pool.submit(() -> IntStream.range(0, chunkCount).parallel()
+                .mapToLong(chunk -> sectionSolver.solve(chunkStart(chunk), chunkEnd(chunk, length), leftBorderMax[chunk], rightBorderMax[chunk]))
+                .reduce(0, Math::addExact)).join();
+    }
+
+    private static int chunkStart(int chunk) {
+        return chunk * LENGTH_PER_TASK;
+    }
+
+    private static int chunkEnd(int chunk, int length) {
+        return (int) Math.min((long) (chunk + 1) * LENGTH_PER_TASK, length);
+    }
+
+    @FunctionalInterface
+    private interface SectionSolver {
+        long solve(int startIndexInclusive, int endIndexExclusive, int leftBorderMax, int rightBorderMax);
+    }
+
+    private static class MaxHeightNode {
+        private final int mStartIndex;
+        private final int mEndIndex;
+        private final int mMaxHeight;
+        private final MaxHeightNode mLeft;
+        private final MaxHeightNode mRight;
+
+        MaxHeightNode(int startIndex, int endIndex, int maxHeight, MaxHeightNode left, MaxHeightNode right) {
+            mStartIndex = startIndex;
+            mEndIndex = endIndex;
+            mMaxHeight = maxHeight;
+            mLeft = left;
+            mRight = right;
+        }
+
+        boolean isLeaf() {
+            return mLeft == null;
+        }
+    }
+
+    private static class MaxHeightSweep extends RecursiveTask<MaxHeightNode> {
+        private final int[] mLandscape;
+        private final int mStartIndex;
+        private final int mEndIndex;
+
+        MaxHeightSweep(int[] landscape, int startIndexInclusive, int endIndexExclusive) {
+            mLandscape = landscape;
+            mStartIndex = startIndexInclusive;
+            mEndIndex = endIndexExclusive;
+        }
+
+        @Override
+        protected MaxHeightNode compute() {
+            if (mEndIndex - mStartIndex <= LENGTH_PER_TASK) {
+                int maxHeight = Integer.MIN_VALUE;
+                for (int i = mStartIndex; i < mEndIndex; i++) {
+                    maxHeight = Math.max(maxHeight, mLandscape[i]);
+                }
+                return new MaxHeightNode(mStartIndex, mEndIndex, maxHeight, null, null);
+            }
+
+            int middle = (mStartIndex + mEndIndex) >>> 1;
+            MaxHeightSweep rightSweep = new MaxHeightSweep(mLandscape, middle, mEndIndex);
+            rightSweep.fork();
+            MaxHeightNode left = new MaxHeightSweep(mLandscape, mStartIndex, middle).compute();
+            MaxHeightNode right = rightSweep.join();
+
+            return new MaxHeightNode(mStartIndex, mEndIndex, Math.max(left.mMaxHeight, right.mMaxHeight), left, right);
+        }
+    }
+
+    private static class WaterSweep extends RecursiveTask<Long> {
+        private final int[] mLandscape;
+        private final MaxHeightNode mNode;
+        private final int mLeftBorderMax;
+        private final int mRightBorderMax;
+
+        WaterSweep(int[] landscape, MaxHeightNode node, int leftBorderMax, int rightBorderMax) {
+            mLandscape = landscape;
+            mNode = node;
+            mLeftBorderMax = leftBorderMax;
+            mRightBorderMax = rightBorderMax;
+        }
+
+        @Override
+        protected Long compute() {
+            if (mNode.isLeaf()) {
+                return SequentialWaterPoolSolver.solve(mLandscape, mNode.mStartIndex, mNode.mEndIndex, mLeftBorderMax, mRightBorderMax);
+            }
+
+            WaterSweep rightSweep = new WaterSweep(mLandscape, mNode.mRight, Math.max(mLeftBorderMax, mNode.mLeft.mMaxHeight), mRightBorderMax);
+            rightSweep.fork();
+            long left = new WaterSweep(mLandscape, mNode.mLeft, mLeftBorderMax, Math.max(mRightBorderMax, mNode.mRight.mMaxHeight)).compute();
+            return left + rightSweep.join();
+        }
+    }
+
+    private static void report(WaterPool waterPool, PoolConsumer consumer) {
+        consumer.accept(waterPool.getStartIndex(), waterPool.getEndIndex(), waterPool.getLevel(), waterPool.getVolume());
+    }
+
+    /**
+     * Pools of a section that touch its start (head) or its end (tail) and may go on into the neighbouring sections.
+     * A pool flooding the whole section is both the head and the tail.
+     */
+    private static class EdgePools {
+        private final WaterPool mHead;
+        private final WaterPool mTail;
+
+        EdgePools(WaterPool head, WaterPool tail) {
+            mHead = head;
+            mTail = tail;
+        }
+
+        boolean isWhole() {
+            return mHead != null && mHead == mTail;
+        }
+
+        /**
+         * Edge pools of two adjacent sections taken together. Pools that end up touching neither end are reported.
+         */
+        static EdgePools join(EdgePools left, EdgePools right, PoolConsumer consumer) {
+            WaterPool head = left.mHead;
+            WaterPool tail = right.mTail;
+
+            if (left.mTail != null && right.mHead != null) {
+                WaterPool joined = new WaterPool(left.mTail.getStartIndex(),
+                                                 right.mHead.getEndIndex(),
+                                                 left.mTail.getLevel(),
+                                                 left.mTail.getVolume() + right.mHead.getVolume());
+                if (left.isWhole()) {
+                    head = joined;
+                }
+                if (right.isWhole()) {
+                    tail = joined;
+                }
+                if (!left.isWhole() && !right.isWhole()) {
+                    report(joined, consumer);
+                }
+                return new EdgePools(head, tail);
+            }
+
+            if (left.mTail != null && !left.isWhole()) {
+                report(left.mTail, consumer);
+            }
+            if (right.mHead != null && !right.isWhole()) {
+                report(right.mHead, consumer);
+            }
+            return new EdgePools(head, tail);
+        }
+    }
+
+    private static class PoolSweep extends RecursiveTask<EdgePools> {
+        private final int[] mLandscape;
+        private final MaxHeightNode mNode;
+        private final int mLeftBorderMax;
+        private final int mRightBorderMax;
+        private final PoolConsumer mConsumer;
+
+        PoolSweep(int[] landscape, MaxHeightNode node, int leftBorderMax, int rightBorderMax, PoolConsumer consumer) {
+            mLandscape = landscape;
+            mNode = node;
+            mLeftBorderMax = leftBorderMax;
+            mRightBorderMax = rightBorderMax;
+            mConsumer = consumer;
+        }
+
+        @Override
+        protected EdgePools compute() {
+            if (mNode.isLeaf()) {
+                WaterPool[] edges = new WaterPool[2];
+                SequentialWaterPoolSolver.forEachPool(mLandscape, mNode.mStartIndex, mNode.mEndIndex, mLeftBorderMax, mRightBorderMax,
+                        (startIndex, endIndex, level, volume) -> {
+                            if (startIndex != mNode.mStartIndex && endIndex != mNode.mEndIndex) {
+                                mConsumer.accept(startIndex, endIndex, level, volume);
+                                return;
+                            }
+                            WaterPool waterPool = new WaterPool(startIndex, endIndex, level, volume);
+                            if (startIndex == mNode.mStartIndex) {
+                                edges[0] = waterPool;
+                            }
+                            if (endIndex == mNode.mEndIndex) {
+                                edges[1] = waterPool;
+                            }
+                        });
+                return new EdgePools(edges[0], edges[1]);
+            }
+
+            PoolSweep rightSweep = new PoolSweep(mLandscape, mNode.mRight, Math.max(mLeftBorderMax, mNode.mLeft.mMaxHeight), mRightBorderMax, mConsumer);
+            rightSweep.fork();
+            EdgePools left = new PoolSweep(mLandscape, mNode.mLeft, mLeftBorderMax, Math.max(mRightBorderMax, mNode.mRight.mMaxHeight), mConsumer).compute();
+            return EdgePools.join(left, rightSweep.join(), mConsumer);
+        }
+    }
+}
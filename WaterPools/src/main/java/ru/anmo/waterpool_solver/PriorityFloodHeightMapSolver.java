@@ -0,0 +1,99 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Priority-flood solver for height maps.
+ * Starts from every edge cell and always drains the lowest queued cell: a neighbour reached for the first time
+ * holds water up to the level of the cell it was reached from, because no lower way out is left.
+ * Every cell is queued once, on a {@link CellQueue} rather than a boxed {@code PriorityQueue}.
+ */
+@Component
+public class PriorityFloodHeightMapSolver implements IHeightMapSolver {
+
+    @Override
+    public long calculateWaterAmount(int[] heights, int width) {
+        return solve(heights, width);
+    }
+
+
+
+    static long solve(final int[] heights, int width) {
+        int rows = rowCount(heights, width);
+        // Maps with 0,1,2 rows or columns are always dry
+        if (width < 3 || rows < 3) {
+            return 0;
+        }
+
+        int minHeight = Integer.MAX_VALUE;
+        int maxHeight = Integer.MIN_VALUE;
+        for (int height : heights) {
+            minHeight = Math.min(minHeight, height);
+            maxHeight = Math.max(maxHeight, height);
+        }
+
+        boolean[] visited = new boolean[heights.length];
+        CellQueue queue = new CellQueue(minHeight, maxHeight, 2 * (width + rows));
+        for (int x = 0; x < width; x++) {
+            enqueueEdge(heights, visited, queue, x);
+            enqueueEdge(heights, visited, queue, (rows - 1) * width + x);
+        }
+        for (int y = 1; y < rows - 1; y++) {
+            enqueueEdge(heights, visited, queue, y * width);
+            enqueueEdge(heights, visited, queue, y * width + width - 1);
+        }
+
+        long sum = 0;
+        while (!queue.isEmpty()) {
+            long entry = queue.pop();
+            int level = CellQueue.level(entry);
+            int cell = CellQueue.cell(entry);
+            int x = cell % width;
+
+            if (x > 0) {
+                sum += flood(heights, visited, queue, cell - 1, level);
+            }
+            if (x < width - 1) {
+                sum += flood(heights, visited, queue, cell + 1, level);
+            }
+            if (cell >= width) {
+                sum += flood(heights, visited, queue, cell - width, level);
+            }
+            if (cell < heights.length - width) {
+                sum += flood(heights, visited, queue, cell + width, level);
+            }
+        }
+        return sum;
+    }
+
+    static int rowCount(final int[] heights, int width) {
+        if (width <= 0 || heights.length % width != 0) {
+            if (heights.length == 0) {
+                return 0;
+            }
+            throw new IllegalArgumentException("Height map of " + heights.length + " columns can't be split into rows of " + width);
+        }
+        return heights.length / width;
+    }
+
+    private static void enqueueEdge(final int[] heights, boolean[] visited, CellQueue queue, int cell) {
+        if (!visited[cell]) {
+            visited[cell] = true;
+            queue.push(heights[cell], cell);
+        }
+    }
+
+    private static long flood(final int[] heights, boolean[] visited, CellQueue queue, int cell, int level) {
+        if (visited[cell]) {
+            return 0;
+        }
+        visited[cell] = true;
+        int height = heights[cell];
+        if (height < level) {
+            queue.push(level, cell);
+            return (long) level - height;
+        }
+        queue.push(height, cell);
+        return 0;
+    }
+}
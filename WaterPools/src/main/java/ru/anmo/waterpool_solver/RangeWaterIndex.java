@@ -0,0 +1,176 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Built once over a landscape, answers "how much water stays if only columns {@code [from, to)} exist" in O(1).
+ * <p>
+ * Let {@code m} and {@code m'} be the leftmost and rightmost highest columns of the range. Columns up to {@code m} are filled
+ * to the running maximum from {@code from}, columns from {@code m'} on to the running maximum from {@code to - 1},
+ * and columns in between to the range maximum. The running maximum from {@code from} steps up at every next higher column,
+ * and that chain of next higher columns passes through {@code m}; so with {@code fillRight[i]}, the sum of the running
+ * maximum from {@code i} to the end of the landscape, the left fill is {@code fillRight[from] - fillRight[m]}.
+ * The right fill comes the same way from {@code fillLeft}, and prefix sums of heights give the rest; all these sums are
+ * kept by {@link RunningMaxSums}.
+ * <p>
+ * The highest columns are found with a sparse table over blocks of {@link #BLOCK_LENGTH} columns, like
+ * {@link MaxHeightEntry} keeping both the leftmost and the rightmost position, and a scan of at most two partial blocks.
+ * The index takes about 24 bytes per column. The landscape must not change after the index is built.
+ */
+public final class RangeWaterIndex {
+
+    static final int BLOCK_SHIFT = 6;
+    static final int BLOCK_LENGTH = 1 << BLOCK_SHIFT;
+
+    private final int[] mLandscape;
+    private final RunningMaxSums mSums;
+    private final int[][] mMostLeftMax;
+    private final int[][] mMostRightMax;
+
+    public RangeWaterIndex(int[] landscape) {
+        int length = landscape.length;
+        mLandscape = landscape;
+        mSums = new RunningMaxSums(landscape, 0, length);
+
+        int blockCount = (int) (((long) length + BLOCK_LENGTH - 1) >> BLOCK_SHIFT);
+        int levels = blockCount <= 1 ? 1 : 32 - Integer.numberOfLeadingZeros(blockCount - 1) + 1;
+        mMostLeftMax = new int[levels][];
+        mMostRightMax = new int[levels][];
+        mMostLeftMax[0] = new int[blockCount];
+        mMostRightMax[0] = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            long positions = scan(block << BLOCK_SHIFT, (int) Math.min((long) (block + 1) << BLOCK_SHIFT, length));
+            mMostLeftMax[0][block] = mostLeft(positions);
+            mMostRightMax[0][block] = mostRight(positions);
+        }
+        for (int level = 1; level < levels; level++) {
+            int span = 1 << (level - 1);
+            int count = Math.max(0, blockCount - 2 * span + 1);
+            mMostLeftMax[level] = new int[count];
+            mMostRightMax[level] = new int[count];
+            for (int block = 0; block < count; block++) {
+                mMostLeftMax[level][block] = higherMostLeft(mMostLeftMax[level - 1][block], mMostLeftMax[level - 1][block + span]);
+                mMostRightMax[level][block] = higherMostRight(mMostRightMax[level - 1][block], mMostRightMax[level - 1][block + span]);
+            }
+        }
+    }
+
+    public int getLength() {
+        return mLandscape.length;
+    }
+
+    /**
+     * Water held by columns {@code [fromIndex, toIndex)} with everything outside them removed.
+     */
+    public long getWaterAmount(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, mLandscape.length);
+        // Landscapes with 0,1,2 lengths are always dry
+        if (toIndex - fromIndex < 3) {
+            return 0;
+        }
+
+        long positions = findMaxPositions(fromIndex, toIndex);
+        return mSums.getWaterAmount(fromIndex, toIndex, mostLeft(positions), mostRight(positions));
+    }
+
+    /**
+     * Water amounts of the ranges {@code [fromIndexes[i], toIndexes[i])}.
+     */
+    public long[] getWaterAmounts(int[] fromIndexes, int[] toIndexes) {
+        checkQueries(fromIndexes, toIndexes);
+        long[] waterAmounts = new long[fromIndexes.length];
+        for (int i = 0; i < waterAmounts.length; i++) {
+            waterAmounts[i] = getWaterAmount(fromIndexes[i], toIndexes[i]);
+        }
+        return waterAmounts;
+    }
+
+    /**
+     * Same as {@link #getWaterAmounts(int[], int[])}, spread over {@code pool}.
+     */
+    public long[] getWaterAmounts(ForkJoinPool pool, int[] fromIndexes, int[] toIndexes) {
+        checkQueries(fromIndexes, toIndexes);
+        long[] waterAmounts = new long[fromIndexes.length];
+        pool.submit(() -> IntStream.range(0, waterAmounts.length).parallel()
+                .forEach(i -> waterAmounts[i] = getWaterAmount(fromIndexes[i], toIndexes[i]))).join();
+        return waterAmounts;
+    }
+
+
+
+    /**
+     * Leftmost and rightmost highest columns of {@code [fromIndex, toIndex)}, packed by {@link #scan}.
+     */
+    private long findMaxPositions(int fromIndex, int toIndex) {
+        int firstBlock = (int) (((long) fromIndex + BLOCK_LENGTH - 1) >> BLOCK_SHIFT);
+        int endBlock = toIndex >> BLOCK_SHIFT;
+        if (firstBlock >= endBlock) {
+            return scan(fromIndex, toIndex);
+        }
+
+        int level = 31 - Integer.numberOfLeadingZeros(endBlock - firstBlock);
+        int mostLeft = higherMostLeft(mMostLeftMax[level][firstBlock], mMostLeftMax[level][endBlock - (1 << level)]);
+        int mostRight = higherMostRight(mMostRightMax[level][firstBlock], mMostRightMax[level][endBlock - (1 << level)]);
+
+        int blocksStart = firstBlock << BLOCK_SHIFT;
+        if (fromIndex < blocksStart) {
+            long head = scan(fromIndex, blocksStart);
+            mostLeft = higherMostLeft(mostLeft(head), mostLeft);
+            mostRight = higherMostRight(mostRight(head), mostRight);
+        }
+        int blocksEnd = endBlock << BLOCK_SHIFT;
+        if (blocksEnd < toIndex) {
+            long tail = scan(blocksEnd, toIndex);
+            mostLeft = higherMostLeft(mostLeft, mostLeft(tail));
+            mostRight = higherMostRight(mostRight, mostRight(tail));
+        }
+        return (long) mostLeft << 32 | mostRight;
+    }
+
+    /**
+     * Leftmost and rightmost highest columns of a non-empty range, packed as {@code mostLeft << 32 | mostRight}.
+     */
+    private long scan(int fromIndex, int toIndex) {
+        int mostLeft = fromIndex;
+        int mostRight = fromIndex;
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            if (mLandscape[i] > mLandscape[mostLeft]) {
+                mostLeft = i;
+                mostRight = i;
+            } else if (mLandscape[i] == mLandscape[mostLeft]) {
+                mostRight = i;
+            }
+        }
+        return (long) mostLeft << 32 | mostRight;
+    }
+
+    /**
+     * The higher of two columns, the left one on a tie; {@code left} must not be to the right of {@code right}.
+     */
+    private int higherMostLeft(int left, int right) {
+        return mLandscape[right] > mLandscape[left] ? right : left;
+    }
+
+    /**
+     * The higher of two columns, the right one on a tie; {@code left} must not be to the right of {@code right}.
+     */
+    private int higherMostRight(int left, int right) {
+        return mLandscape[left] > mLandscape[right] ? left : right;
+    }
+
+    private static int mostLeft(long positions) {
+        return (int) (positions >>> 32);
+    }
+
+    private static int mostRight(long positions) {
+        return (int) positions;
+    }
+
+    private static void checkQueries(int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new IllegalArgumentException("Got " + fromIndexes.length + " range starts but " + toIndexes.length + " range ends");
+        }
+    }
+}
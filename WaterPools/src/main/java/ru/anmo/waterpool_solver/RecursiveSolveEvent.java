@@ -0,0 +1,28 @@
+package ru.anmo.waterpool_solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("ru.anmo.waterpools.RecursiveSolve")
+@Label("Recursive Solve Fan-Out")
+@Category("WaterPools")
+@Description("Recursion and task fan-out of one WaterPoolSolver solve")
+final class RecursiveSolveEvent extends Event {
+
+    @Label("Landscape Length")
+    int landscapeLength;
+
+    @Label("Max Recursion Depth")
+    int maxRecursionDepth;
+
+    @Label("Submitted Tasks")
+    long submittedTasks;
+
+    @Label("Blocked Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long blockedTime;
+}
@@ -0,0 +1,59 @@
+package ru.anmo.waterpool_solver;
+
+/**
+ * Prefix sums of heights and of running maximums over the columns {@code [offset, offset + length)} of a landscape,
+ * from which {@link RangeWaterIndex} and {@link SlidingWindowWaterSolver} evaluate the water of a range once its
+ * leftmost and rightmost highest columns are known. Indexes are local: {@code j} stands for the column {@code offset + j}.
+ */
+final class RunningMaxSums {
+    private final int[] mLandscape;
+    private final int mOffset;
+    private final long[] mHeightSum;
+    private final long[] mFillRight;
+    private final long[] mFillLeft;
+
+    RunningMaxSums(int[] landscape, int offset, int length) {
+        mLandscape = landscape;
+        mOffset = offset;
+        mHeightSum = new long[length + 1];
+        for (int j = 0; j < length; j++) {
+            mHeightSum[j + 1] = mHeightSum[j] + landscape[offset + j];
+        }
+
+        // fillRight[j] = sum of the running maximum from j to the end, fillRight[length] = 0
+        mFillRight = new long[length + 1];
+        int[] stack = new int[length];
+        int stackSize = 0;
+        for (int j = length - 1; j >= 0; j--) {
+            while (stackSize > 0 && landscape[offset + stack[stackSize - 1]] <= landscape[offset + j]) {
+                stackSize--;
+            }
+            int nextHigher = stackSize == 0 ? length : stack[stackSize - 1];
+            mFillRight[j] = (long) landscape[offset + j] * (nextHigher - j) + mFillRight[nextHigher];
+            stack[stackSize++] = j;
+        }
+
+        // fillLeft[j + 1] = sum of the running maximum from j down to 0, fillLeft[0] = 0
+        mFillLeft = new long[length + 1];
+        stackSize = 0;
+        for (int j = 0; j < length; j++) {
+            while (stackSize > 0 && landscape[offset + stack[stackSize - 1]] <= landscape[offset + j]) {
+                stackSize--;
+            }
+            int previousHigher = stackSize == 0 ? -1 : stack[stackSize - 1];
+            mFillLeft[j + 1] = (long) landscape[offset + j] * (j - previousHigher) + mFillLeft[previousHigher + 1];
+            stack[stackSize++] = j;
+        }
+    }
+
+    /**
+     * Water held by the local columns {@code [from, to)} on their own, whose leftmost and rightmost highest columns
+     * are {@code mostLeft} and {@code mostRight}.
+     */
+    long getWaterAmount(int from, int to, int mostLeft, int mostRight) {
+        long leftFill = mFillRight[from] - mFillRight[mostLeft];
+        long middleFill = (long) mLandscape[mOffset + mostLeft] * (mostRight - mostLeft + 1);
+        long rightFill = mFillLeft[to] - mFillLeft[mostRight + 1];
+        return leftFill + middleFill + rightFill - (mHeightSum[to] - mHeightSum[from]);
+    }
+}
@@ -0,0 +1,299 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+/**
+ * Single-pass two-pointer solver.
+ * Walks the landscape from both ends at once, always advancing the side with the lower running maximum,
+ * so every column is visited exactly once and nothing is allocated.
+ */
+@Component
+public class SequentialWaterPoolSolver implements IWaterPoolSolver {
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.length < 3) {
+            return 0;
+        }
+        return solve(landscape, 0, landscape.length);
+    }
+
+
+
+    static long solve(final int[] landscape, int startIndexInclusive, int endIndexExclusive) {
+        return solve(landscape, startIndexInclusive, endIndexExclusive, Integer.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Solves a section whose surroundings are already known: {@code leftBorderMax} and {@code rightBorderMax}
+     * are the highest columns before and after the section, {@link Integer#MIN_VALUE} when there are none.
+     */
+    static long solve(final int[] landscape,
+                      int startIndexInclusive,
+                      int endIndexExclusive,
+                      int leftBorderMax,
+                      int rightBorderMax) {
+        int left = startIndexInclusive;
+        int right = endIndexExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        long sum = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = landscape[left++];
+                if (height > leftMax) {
+                    leftMax = height;
+                } else {
+                    sum += (long) leftMax - height;
+                }
+            } else {
+                int height = landscape[right--];
+                if (height > rightMax) {
+                    rightMax = height;
+                } else {
+                    sum += (long) rightMax - height;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Same pass, reporting pools instead of summing them.
+     * Each pointer keeps one open pool that is reported when the pointer reaches a dry column;
+     * when the pointers meet, the two open pools touch and are reported as one.
+     * Flooded neighbours always share their level, so the open pool level is the running maximum of its side.
+     */
+    static void forEachPool(final int[] landscape,
+                            int startIndexInclusive,
+                            int endIndexExclusive,
+                            int leftBorderMax,
+                            int rightBorderMax,
+                            final IWaterPoolSolver.PoolConsumer consumer) {
+        int left = startIndexInclusive;
+        int right = endIndexExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        int leftPoolStart = -1;
+        int rightPoolEnd = -1;
+        long leftPoolVolume = 0;
+        long rightPoolVolume = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = landscape[left];
+                if (height < leftMax) {
+                    if (leftPoolStart < 0) {
+                        leftPoolStart = left;
+                        leftPoolVolume = 0;
+                    }
+                    leftPoolVolume += (long) leftMax - height;
+                } else {
+                    if (leftPoolStart >= 0) {
+                        consumer.accept(leftPoolStart, left, leftMax, leftPoolVolume);
+                        leftPoolStart = -1;
+                    }
+                    leftMax = height;
+                }
+                left++;
+            } else {
+                int height = landscape[right];
+                if (height < rightMax) {
+                    if (rightPoolEnd < 0) {
+                        rightPoolEnd = right + 1;
+                        rightPoolVolume = 0;
+                    }
+                    rightPoolVolume += (long) rightMax - height;
+                } else {
+                    if (rightPoolEnd >= 0) {
+                        consumer.accept(right + 1, rightPoolEnd, rightMax, rightPoolVolume);
+                        rightPoolEnd = -1;
+                    }
+                    rightMax = height;
+                }
+                right--;
+            }
+        }
+
+        if (leftPoolStart >= 0 && rightPoolEnd >= 0) {
+            consumer.accept(leftPoolStart, rightPoolEnd, leftMax, leftPoolVolume + rightPoolVolume);
+        } else if (leftPoolStart >= 0) {
+            consumer.accept(leftPoolStart, left, leftMax, leftPoolVolume);
+        } else if (rightPoolEnd >= 0) {
+            consumer.accept(left, rightPoolEnd, rightMax, rightPoolVolume);
+        }
+    }
+
+    static long solve(final short[] landscape, int startIndexInclusive, int endIndexExclusive) {
+        return solve(landscape, startIndexInclusive, endIndexExclusive, Integer.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Same pass over unsigned 16-bit heights.
+     */
+    static long solve(final short[] landscape,
+                      int startIndexInclusive,
+                      int endIndexExclusive,
+                      int leftBorderMax,
+                      int rightBorderMax) {
+        int left = startIndexInclusive;
+        int right = endIndexExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        long sum = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = landscape[left++] & 0xFFFF;
+                if (height > leftMax) {
+                    leftMax = height;
+                } else {
+                    sum += leftMax - height;
+                }
+            } else {
+                int height = landscape[right--] & 0xFFFF;
+                if (height > rightMax) {
+                    rightMax = height;
+                } else {
+                    sum += rightMax - height;
+                }
+            }
+        }
+        return sum;
+    }
+
+    static long solve(final byte[] landscape, int startIndexInclusive, int endIndexExclusive) {
+        return solve(landscape, startIndexInclusive, endIndexExclusive, Integer.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Same pass over unsigned 8-bit heights.
+     */
+    static long solve(final byte[] landscape,
+                      int startIndexInclusive,
+                      int endIndexExclusive,
+                      int leftBorderMax,
+                      int rightBorderMax) {
+        int left = startIndexInclusive;
+        int right = endIndexExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        long sum = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = landscape[left++] & 0xFF;
+                if (height > leftMax) {
+                    leftMax = height;
+                } else {
+                    sum += leftMax - height;
+                }
+            } else {
+                int height = landscape[right--] & 0xFF;
+                if (height > rightMax) {
+                    rightMax = height;
+                } else {
+                    sum += rightMax - height;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Same pass over an off-heap landscape, following both ends segment by segment.
+     */
+    static long solve(Landscape landscape) {
+        if (landscape.getLength() < 3) {
+            return 0;
+        }
+
+        int leftSegment = 0;
+        int rightSegment = landscape.getSegmentCount() - 1;
+        int leftIndex = 0;
+        int rightIndex = landscape.getSegmentLength(rightSegment) - 1;
+        long remaining = landscape.getLength();
+        int leftMax = Integer.MIN_VALUE;
+        int rightMax = Integer.MIN_VALUE;
+        long sum = 0;
+
+        try (Landscape.Reader reader = landscape.read()) {
+            while (remaining-- > 0) {
+                if (leftMax <= rightMax) {
+                    if (leftIndex == landscape.getColumnsPerSegment()) {
+                        leftSegment++;
+                        leftIndex = 0;
+                    }
+                    int height = reader.heightAt(leftSegment, leftIndex++);
+                    if (height > leftMax) {
+                        leftMax = height;
+                    } else {
+                        sum += (long) leftMax - height;
+                    }
+                } else {
+                    if (rightIndex < 0) {
+                        rightIndex = landscape.getSegmentLength(--rightSegment) - 1;
+                    }
+                    int height = reader.heightAt(rightSegment, rightIndex--);
+                    if (height > rightMax) {
+                        rightMax = height;
+                    } else {
+                        sum += (long) rightMax - height;
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Same pass over runs of equal columns, a whole run per step, so it takes one step per run however wide they are.
+     *
+     * @throws ArithmeticException if the water amount overflows a {@code long}
+     */
+    static long solve(RunLengthLandscape landscape) {
+        return solve(landscape, 0, landscape.getRunCount(), Integer.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Same pass over the runs {@code [startRunInclusive, endRunExclusive)} between known border maxima.
+     *
+     * @throws ArithmeticException if the water amount overflows a {@code long}
+     */
+    static long solve(RunLengthLandscape landscape,
+                      int startRunInclusive,
+                      int endRunExclusive,
+                      int leftBorderMax,
+                      int rightBorderMax) {
+        int left = startRunInclusive;
+        int right = endRunExclusive - 1;
+        int leftMax = leftBorderMax;
+        int rightMax = rightBorderMax;
+        long sum = 0;
+
+        while (left <= right) {
+            if (leftMax <= rightMax) {
+                int height = landscape.getHeight(left);
+                if (height > leftMax) {
+                    leftMax = height;
+                } else {
+                    sum = Math.addExact(sum, Math.multiplyExact((long) leftMax - height, landscape.getRunLength(left)));
+                }
+                left++;
+            } else {
+                int height = landscape.getHeight(right);
+                if (height > rightMax) {
+                    rightMax = height;
+                } else {
+                    sum = Math.addExact(sum, Math.multiplyExact((long) rightMax - height, landscape.getRunLength(right)));
+                }
+                right--;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,336 @@
+package ru.anmo.waterpool_solver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Everything the rest of a landscape needs to know about one shard of it.
+ * <p>
+ * The water level of a column is the lower of the highest columns on its left and on its right.
+ * Up to the leftmost highest column of the shard only the left side can change from outside, and only where
+ * the running maximum from the shard start is lower than the outside; past that column the same holds for the right side.
+ * So a shard keeps the water it holds on its own plus two staircases: the running maximum from the start up to
+ * its leftmost highest column, and the running maximum from the end down to just past it. A staircase step is a height
+ * and the number of columns sharing it, so random shards keep a few dozen steps however long they are;
+ * only long monotone runs make staircases as long as the shard.
+ * <p>
+ * Summaries of neighbouring shards {@link #merge} into the summary of both, exactly and associatively,
+ * so shards can be summarized independently and folded in order. {@link #writeTo} gives a compact binary form for
+ * shipping summaries between processes.
+ */
+public final class ShardSummary {
+
+    /**
+     * Identity of {@link #merge}: the summary of an empty shard.
+     */
+    public static final ShardSummary EMPTY = new ShardSummary(0, Integer.MIN_VALUE, 0, new Staircase(), new Staircase());
+
+    private static final int FORMAT_MAGIC = 0x57505353;
+
+    private final long mLength;
+    private final int mMaxHeight;
+    private final long mWaterAmount;
+    private final Staircase mPrefixMax;
+    private final Staircase mSuffixMax;
+
+    private ShardSummary(long length, int maxHeight, long waterAmount, Staircase prefixMax, Staircase suffixMax) {
+        mLength = length;
+        mMaxHeight = maxHeight;
+        mWaterAmount = waterAmount;
+        mPrefixMax = prefixMax;
+        mSuffixMax = suffixMax;
+    }
+
+    /**
+     * Summary of the shard {@code [startIndexInclusive, endIndexExclusive)} of {@code landscape}.
+     */
+    public static ShardSummary of(final int[] landscape, int startIndexInclusive, int endIndexExclusive) {
+        if (startIndexInclusive >= endIndexExclusive) {
+            return EMPTY;
+        }
+
+        int maxPosition = startIndexInclusive;
+        for (int i = startIndexInclusive + 1; i < endIndexExclusive; i++) {
+            if (landscape[i] > landscape[maxPosition]) {
+                maxPosition = i;
+            }
+        }
+
+        Staircase prefixMax = new Staircase();
+        for (int i = startIndexInclusive; i <= maxPosition; i++) {
+            prefixMax.append(landscape[i], 1);
+        }
+        Staircase suffixMax = new Staircase();
+        for (int i = endIndexExclusive - 1; i > maxPosition; i--) {
+            suffixMax.append(landscape[i], 1);
+        }
+
+        return new ShardSummary(endIndexExclusive - startIndexInclusive,
+                landscape[maxPosition],
+                SequentialWaterPoolSolver.solve(landscape, startIndexInclusive, endIndexExclusive),
+                prefixMax,
+                suffixMax);
+    }
+
+    /**
+     * Summary of the shard {@code left} directly followed by the shard {@code right}.
+     */
+    public static ShardSummary merge(ShardSummary left, ShardSummary right) {
+        if (left.mLength == 0) {
+            return right;
+        }
+        if (right.mLength == 0) {
+            return left;
+        }
+
+        long waterAmount = left.getWaterAmount(Integer.MIN_VALUE, right.mMaxHeight)
+                + right.getWaterAmount(left.mMaxHeight, Integer.MIN_VALUE);
+
+        Staircase prefixMax = left.mPrefixMax.copy();
+        Staircase suffixMax = right.mSuffixMax.copy();
+        if (right.mMaxHeight > left.mMaxHeight) {
+            prefixMax.append(left.mMaxHeight, left.mLength - left.mPrefixMax.getLength());
+            prefixMax.appendAll(right.mPrefixMax);
+        } else {
+            suffixMax.append(right.mMaxHeight, right.mLength - right.mSuffixMax.getLength());
+            suffixMax.appendAll(left.mSuffixMax);
+        }
+
+        return new ShardSummary(left.mLength + right.mLength,
+                Math.max(left.mMaxHeight, right.mMaxHeight),
+                waterAmount,
+                prefixMax,
+                suffixMax);
+    }
+
+    /**
+     * Summary of consecutive shards, from left to right.
+     */
+    public static ShardSummary merge(List<ShardSummary> shards) {
+        ShardSummary merged = EMPTY;
+        for (ShardSummary shard : shards) {
+            merged = merge(merged, shard);
+        }
+        return merged;
+    }
+
+    public long getLength() {
+        return mLength;
+    }
+
+    /**
+     * Highest column of the shard, {@link Integer#MIN_VALUE} for an empty one.
+     */
+    public int getMaxHeight() {
+        return mMaxHeight;
+    }
+
+    /**
+     * Water the shard holds on its own, as if it was the whole landscape.
+     */
+    public long getWaterAmount() {
+        return mWaterAmount;
+    }
+
+    /**
+     * Water the shard holds between the given highest columns before and after it,
+     * {@link Integer#MIN_VALUE} when there are none.
+     */
+    public long getWaterAmount(int leftBorderMax, int rightBorderMax) {
+        int leftCap = Math.max(rightBorderMax, mMaxHeight);
+        int rightCap = Math.max(leftBorderMax, mMaxHeight);
+        return mWaterAmount
+                + mPrefixMax.raiseTo(leftBorderMax, leftCap)
+                + mSuffixMax.raiseTo(rightBorderMax, rightCap);
+    }
+
+    /**
+     * Number of staircase steps kept, a measure of the summary size.
+     */
+    public int getStepCount() {
+        return mPrefixMax.mSize + mSuffixMax.mSize;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_MAGIC);
+        out.writeLong(mLength);
+        out.writeInt(mMaxHeight);
+        out.writeLong(mWaterAmount);
+        mPrefixMax.writeTo(out);
+        mSuffixMax.writeTo(out);
+    }
+
+    public static ShardSummary readFrom(DataInput in) throws IOException {
+        if (in.readInt() != FORMAT_MAGIC) {
+            throw new IOException("Not a shard summary");
+        }
+        long length = in.readLong();
+        int maxHeight = in.readInt();
+        long waterAmount = in.readLong();
+        return new ShardSummary(length, maxHeight, waterAmount, Staircase.readFrom(in), Staircase.readFrom(in));
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + 12 * getStepCount());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ShardSummary fromBytes(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readFrom(in);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShardSummary other)) {
+            return false;
+        }
+        return mLength == other.mLength && mMaxHeight == other.mMaxHeight && mWaterAmount == other.mWaterAmount
+                && mPrefixMax.equals(other.mPrefixMax) && mSuffixMax.equals(other.mSuffixMax);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mLength, mMaxHeight, mWaterAmount, mPrefixMax, mSuffixMax);
+    }
+
+    @Override
+    public String toString() {
+        return "ShardSummary[length = " + mLength + ", maxHeight = " + mMaxHeight + ", water = " + mWaterAmount
+                + ", steps = " + getStepCount() + "]";
+    }
+
+
+
+
+    /**
+     * Running maximum of a run of columns, walked away from the shard edge: strictly rising heights,
+     * each with the number of columns it covers.
+     */
+    private static final class Staircase {
+        private int[] mHeights;
+        private long[] mCounts;
+        private int mSize;
+
+        Staircase() {
+            this(new int[4], new long[4], 0);
+        }
+
+        private Staircase(int[] heights, long[] counts, int size) {
+            mHeights = heights;
+            mCounts = counts;
+            mSize = size;
+        }
+
+        Staircase copy() {
+            return new Staircase(Arrays.copyOf(mHeights, Math.max(4, mSize)), Arrays.copyOf(mCounts, Math.max(4, mSize)), mSize);
+        }
+
+        long getLength() {
+            long length = 0;
+            for (int step = 0; step < mSize; step++) {
+                length += mCounts[step];
+            }
+            return length;
+        }
+
+        /**
+         * Continues the walk with {@code count} columns of {@code height}.
+         */
+        void append(int height, long count) {
+            if (count == 0) {
+                return;
+            }
+            if (mSize > 0 && height <= mHeights[mSize - 1]) {
+                mCounts[mSize - 1] += count;
+                return;
+            }
+            if (mSize == mHeights.length) {
+                mHeights = Arrays.copyOf(mHeights, 2 * mSize);
+                mCounts = Arrays.copyOf(mCounts, 2 * mSize);
+            }
+            mHeights[mSize] = height;
+            mCounts[mSize] = count;
+            mSize++;
+        }
+
+        void appendAll(Staircase other) {
+            for (int step = 0; step < other.mSize; step++) {
+                append(other.mHeights[step], other.mCounts[step]);
+            }
+        }
+
+        /**
+         * Extra water when the columns see {@code outside} beyond the shard edge: every step below it rises
+         * to {@code outside}, but never above {@code cap}, the level the other side of the shard allows.
+         */
+        long raiseTo(int outside, int cap) {
+            int level = Math.min(outside, cap);
+            long extra = 0;
+            for (int step = 0; step < mSize && mHeights[step] < level; step++) {
+                extra += mCounts[step] * ((long) level - mHeights[step]);
+            }
+            return extra;
+        }
+
+        void writeTo(DataOutput out) throws IOException {
+            out.writeInt(mSize);
+            for (int step = 0; step < mSize; step++) {
+                out.writeInt(mHeights[step]);
+                out.writeLong(mCounts[step]);
+            }
+        }
+
+        static Staircase readFrom(DataInput in) throws IOException {
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Incorrect staircase size = " + size);
+            }
+            // The size is not trusted: the arrays grow with the steps actually read
+            Staircase staircase = new Staircase();
+            for (int step = 0; step < size; step++) {
+                staircase.append(in.readInt(), in.readLong());
+            }
+            if (staircase.mSize != size) {
+                throw new IOException("Staircase heights are not rising");
+            }
+            return staircase;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Staircase other) || mSize != other.mSize) {
+                return false;
+            }
+            return Arrays.equals(mHeights, 0, mSize, other.mHeights, 0, mSize)
+                    && Arrays.equals(mCounts, 0, mSize, other.mCounts, 0, mSize);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            for (int step = 0; step < mSize; step++) {
+                hash = 31 * (31 * hash + mHeights[step]) + Long.hashCode(mCounts[step]);
+            }
+            return hash;
+        }
+    }
+}
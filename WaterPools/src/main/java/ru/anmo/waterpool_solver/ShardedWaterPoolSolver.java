@@ -0,0 +1,109 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Coordinator for landscapes solved shard by shard, the way they would be spread over several nodes.
+ * Every shard is summarized on its own by a worker, which sees nothing but its shard and hands back
+ * the {@link ShardSummary} as bytes; the coordinator decodes the summaries and merges them in shard order.
+ * <p>
+ * Here the workers are tasks on the shared pool. {@link #combine} takes summaries produced anywhere else,
+ * e.g. by other processes calling {@link ShardSummary#of} and {@link ShardSummary#writeTo} on their own shards.
+ * Summaries only exist for {@code int} heights, so narrow, off-heap and run-length landscapes are solved in parallel
+ * by {@link ParallelPrefixWaterPoolSolver} instead.
+ */
+@Component
+public class ShardedWaterPoolSolver implements IWaterPoolSolver {
+
+    public static final int DEFAULT_SHARD_LENGTH = 1 << 20;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    @Autowired
+    private ParallelPrefixWaterPoolSolver parallelSolver;
+
+    @Value("${waterpools.shard.length:" + DEFAULT_SHARD_LENGTH + "}")
+    private int shardLength;
+
+    @PostConstruct
+    void checkShardLength() {
+        if (shardLength <= 0) {
+            throw new IllegalArgumentException("Incorrect waterpools.shard.length = " + shardLength + ", should be positive");
+        }
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.length < 3) {
+            return 0;
+        }
+
+        List<Callable<byte[]>> workers = new ArrayList<>();
+        for (long shardStart = 0; shardStart < landscape.length; shardStart += shardLength) {
+            final int start = (int) shardStart;
+            final int end = (int) Math.min(shardStart + shardLength, landscape.length);
+            workers.add(() -> ShardSummary.of(landscape, start, end).toBytes());
+        }
+        return combine(pool.invokeAll(workers)).getWaterAmount();
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    public int getShardLength() {
+        return shardLength;
+    }
+
+    /**
+     * Merges encoded summaries of consecutive shards, from left to right.
+     */
+    public static ShardSummary combine(List<? extends Future<byte[]>> encodedShards) {
+        List<ShardSummary> shards = new ArrayList<>(encodedShards.size());
+        try {
+            for (Future<byte[]> encodedShard : encodedShards) {
+                shards.add(ShardSummary.fromBytes(encodedShard.get()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard summaries", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shard summary failed", e.getCause());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ShardSummary.merge(shards);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Water held by every window of {@code windowLength} consecutive columns, each window taken on its own.
+ * <p>
+ * A window is solved like a range of {@link RangeWaterIndex}: from {@link RunningMaxSums} and the leftmost and rightmost
+ * highest columns of the window. The sums are built once per pass, and the highest columns of the sliding window are
+ * the heads of two monotonic deques, so all {@code n - windowLength + 1} windows take O(n) together.
+ * The parallel variant splits the windows into chunks of at least {@code windowLength}; every chunk builds its own sums
+ * over the columns its windows cover, so at most twice the columns are visited in total.
+ */
+@Component
+public class SlidingWindowWaterSolver {
+
+    static final int WINDOWS_PER_TASK = 1 << 16;
+
+    @Autowired
+    private ForkJoinPool executor;
+
+    /**
+     * Element {@code i} is the water held by the columns {@code [i, i + windowLength)} with everything outside them removed.
+     */
+    public long[] calculateWindowWaterAmounts(int[] landscape, int windowLength) {
+        long[] waterAmounts = new long[windowCount(landscape, windowLength)];
+        solve(landscape, windowLength, 0, waterAmounts.length, waterAmounts);
+        return waterAmounts;
+    }
+
+    /**
+     * Same as {@link #calculateWindowWaterAmounts}, with chunks of windows spread over the shared pool.
+     */
+    public long[] calculateWindowWaterAmountsParallel(int[] landscape, int windowLength) {
+        long[] waterAmounts = new long[windowCount(landscape, windowLength)];
+        int windowsPerTask = Math.max(WINDOWS_PER_TASK, windowLength);
+        int taskCount = (int) (((long) waterAmounts.length + windowsPerTask - 1) / windowsPerTask);
+        if (taskCount <= 1) {
+            solve(landscape, windowLength, 0, waterAmounts.length, waterAmounts);
+            return waterAmounts;
+        }
+        executor.submit(() -> IntStream.range(0, taskCount).parallel().forEach(task -> {
+            int firstWindow = task * windowsPerTask;
+            solve(landscape, windowLength, firstWindow, (int) Math.min((long) firstWindow + windowsPerTask, waterAmounts.length), waterAmounts);
+        })).join();
+        return waterAmounts;
+    }
+
+
+
+    private static int windowCount(int[] landscape, int windowLength) {
+        if (windowLength <= 0) {
+            throw new IllegalArgumentException("Incorrect window length = " + windowLength + ", should be positive");
+        }
+        return Math.max(0, landscape.length - windowLength + 1);
+    }
+
+    /**
+     * Fills {@code waterAmounts[firstWindow, endWindow)}, looking only at the columns those windows cover.
+     */
+    static void solve(final int[] landscape, int windowLength, int firstWindow, int endWindow, long[] waterAmounts) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (windowLength < 3 || firstWindow >= endWindow) {
+            return;
+        }
+
+        // Local index j stands for the column offset + j
+        int offset = firstWindow;
+        int length = endWindow - 1 + windowLength - offset;
+        RunningMaxSums sums = new RunningMaxSums(landscape, offset, length);
+
+        // Both deques hold decreasing heights; the left one keeps the earlier of equal columns, the right one the later
+        int[] mostLeftDeque = new int[length];
+        int[] mostRightDeque = new int[length];
+        int leftHead = 0;
+        int leftTail = 0;
+        int rightHead = 0;
+        int rightTail = 0;
+        for (int j = 0; j < length; j++) {
+            int height = landscape[offset + j];
+            while (leftTail > leftHead && landscape[offset + mostLeftDeque[leftTail - 1]] < height) {
+                leftTail--;
+            }
+            mostLeftDeque[leftTail++] = j;
+            while (rightTail > rightHead && landscape[offset + mostRightDeque[rightTail - 1]] <= height) {
+                rightTail--;
+            }
+            mostRightDeque[rightTail++] = j;
+
+            int from = j - windowLength + 1;
+            if (from < 0) {
+                continue;
+            }
+            if (mostLeftDeque[leftHead] < from) {
+                leftHead++;
+            }
+            if (mostRightDeque[rightHead] < from) {
+                rightHead++;
+            }
+            waterAmounts[offset + from] = sums.getWaterAmount(from, j + 1, mostLeftDeque[leftHead], mostRightDeque[rightHead]);
+        }
+    }
+}
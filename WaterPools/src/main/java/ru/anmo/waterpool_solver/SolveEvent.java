@@ -0,0 +1,26 @@
+package ru.anmo.waterpool_solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("ru.anmo.waterpools.Solve")
+@Label("Water Pool Solve")
+@Category("WaterPools")
+@Description("One landscape solved by an instrumented solver")
+final class SolveEvent extends Event {
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Landscape Length")
+    long landscapeLength;
+
+    @Label("Water Amount")
+    long waterAmount;
+
+    @Label("Executor Queue Depth")
+    long executorQueueDepth;
+}
@@ -0,0 +1,24 @@
+package ru.anmo.waterpool_solver;
+
+/**
+ * Solver implementations that can be selected with the {@code waterpools.solver.engine} property.
+ */
+public enum SolverEngine {
+    SEQUENTIAL(SequentialWaterPoolSolver.class),
+    PARALLEL_PREFIX(ParallelPrefixWaterPoolSolver.class),
+    SIMD(VectorWaterPoolSolver.class),
+    RECURSIVE(WaterPoolSolver.class),
+    ADAPTIVE(AdaptiveWaterPoolSolver.class),
+    SHARDED(ShardedWaterPoolSolver.class),
+    ASYNC(AsyncWaterPoolSolver.class);
+
+    private final Class<? extends IWaterPoolSolver> mSolverClass;
+
+    SolverEngine(Class<? extends IWaterPoolSolver> solverClass) {
+        mSolverClass = solverClass;
+    }
+
+    public Class<? extends IWaterPoolSolver> getSolverClass() {
+        return mSolverClass;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the solvers in the context.
+ * Switched off unless {@code waterpools.metrics.enabled} is set; when off nothing is wrapped or counted,
+ * and the recursive solver skips its bookkeeping after a single field check.
+ * <p>
+ * Latencies are kept as log2 histograms per log2 landscape size: bucket {@code b} counts values in {@code [2^(b-1), 2^b)}.
+ * Every recorded solve is also committed as a {@link SolveEvent} when a JFR recording has it enabled.
+ */
+@Component
+public class SolverMetrics {
+
+    // Off-heap and run-length landscapes are indexed with long, so the size buckets go up to sizeBucket(Long.MAX_VALUE)
+    public static final int SIZE_BUCKETS = Long.SIZE + 1;
+    public static final int LATENCY_BUCKETS = Long.SIZE;
+
+    @Value("${waterpools.metrics.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    private final LongAdder mSolveCount = new LongAdder();
+    private final AtomicLongArray mLatencyHistograms = new AtomicLongArray(SIZE_BUCKETS * LATENCY_BUCKETS);
+    private final LongAdder mSubmittedTaskCount = new LongAdder();
+    private final LongAdder mBlockedNanos = new LongAdder();
+    private final LongAccumulator mMaxRecursionDepth = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator mMaxExecutorQueueDepth = new LongAccumulator(Math::max, 0);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps the solver so that its solves are timed, or returns it as is when metrics are off.
+     */
+    public IWaterPoolSolver instrument(IWaterPoolSolver solver) {
+        return enabled ? new InstrumentedWaterPoolSolver(solver, this) : solver;
+    }
+
+    public long getSolveCount() {
+        return mSolveCount.sum();
+    }
+
+    /**
+     * Latency histogram of the solves whose landscape length falls into {@code sizeBucket}.
+     */
+    public long[] getLatencyHistogram(int sizeBucket) {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = mLatencyHistograms.get(sizeBucket * LATENCY_BUCKETS + i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Tasks the recursive solver handed to the executor.
+     */
+    public long getSubmittedTaskCount() {
+        return mSubmittedTaskCount.sum();
+    }
+
+    /**
+     * Time the recursive solver spent waiting on its futures.
+     */
+    public long getBlockedNanos() {
+        return mBlockedNanos.sum();
+    }
+
+    public long getMaxRecursionDepth() {
+        return mMaxRecursionDepth.get();
+    }
+
+    public long getExecutorQueueDepth() {
+        return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+    }
+
+    /**
+     * Deepest executor queue seen at the start of a recorded solve.
+     */
+    public long getMaxExecutorQueueDepth() {
+        return mMaxExecutorQueueDepth.get();
+    }
+
+    public static int sizeBucket(long landscapeLength) {
+        return Long.SIZE - Long.numberOfLeadingZeros(landscapeLength);
+    }
+
+    public static int latencyBucket(long nanos) {
+        return Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, nanos));
+    }
+
+
+
+    long sampleExecutorQueueDepth() {
+        long queueDepth = getExecutorQueueDepth();
+        mMaxExecutorQueueDepth.accumulate(queueDepth);
+        return queueDepth;
+    }
+
+    void recordSolve(long landscapeLength, long nanos) {
+        mSolveCount.increment();
+        mLatencyHistograms.incrementAndGet(sizeBucket(landscapeLength) * LATENCY_BUCKETS + latencyBucket(nanos));
+    }
+
+    void recordRecursiveSolve(int landscapeLength, int maxRecursionDepth, long submittedTasks, long blockedNanos) {
+        mMaxRecursionDepth.accumulate(maxRecursionDepth);
+        mSubmittedTaskCount.add(submittedTasks);
+        mBlockedNanos.add(blockedNanos);
+
+        RecursiveSolveEvent event = new RecursiveSolveEvent();
+        if (event.shouldCommit()) {
+            event.landscapeLength = landscapeLength;
+            event.maxRecursionDepth = maxRecursionDepth;
+            event.submittedTasks = submittedTasks;
+            event.blockedTime = blockedNanos;
+            event.commit();
+        }
+    }
+}
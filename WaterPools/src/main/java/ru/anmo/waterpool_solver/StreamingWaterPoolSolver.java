@@ -0,0 +1,118 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Solver for landscapes that arrive as a stream of heights.
+ * Columns are consumed left to right while a stack of still unresolved walls is kept,
+ * so memory depends on the number of pending peaks and not on the landscape length.
+ */
+@Component
+public class StreamingWaterPoolSolver implements IWaterPoolSolver {
+
+    private static final int BUFFER_LENGTH = 8192;
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        return newSession().accept(landscape, 0, landscape.length).getWaterAmount();
+    }
+
+    public long calculateWaterAmount(IntStream landscape) {
+        Session session = newSession();
+        landscape.sequential().forEachOrdered(session::accept);
+        return session.getWaterAmount();
+    }
+
+    public long calculateWaterAmount(IntBuffer landscape) {
+        Session session = newSession();
+        IntBuffer heights = landscape.duplicate();
+
+        if (heights.hasArray()) {
+            session.accept(heights.array(), heights.arrayOffset() + heights.position(), heights.remaining());
+            return session.getWaterAmount();
+        }
+
+        int[] chunk = new int[BUFFER_LENGTH];
+        while (heights.hasRemaining()) {
+            int length = Math.min(chunk.length, heights.remaining());
+            heights.get(chunk, 0, length);
+            session.accept(chunk, 0, length);
+        }
+        return session.getWaterAmount();
+    }
+
+    public Session newSession() {
+        return new Session();
+    }
+
+
+
+    /**
+     * Push-style accumulator for a single landscape, not thread-safe.
+     * Water is resolved as soon as a right wall arrives, so {@link #getWaterAmount()} is exact
+     * for the columns consumed so far and needs no end-of-stream marker.
+     */
+    public static final class Session {
+        private int[] mWallHeights = new int[16];
+        private long[] mWallPositions = new long[16];
+        private int mWallCount = 0;
+        private long mColumnCount = 0;
+        private long mWaterAmount = 0;
+
+        private Session() {
+        }
+
+        public Session accept(int height) {
+            while (mWallCount > 0 && mWallHeights[mWallCount - 1] < height) {
+                int bottomHeight = mWallHeights[--mWallCount];
+                if (mWallCount == 0) {
+                    break;
+                }
+                long width = mColumnCount - mWallPositions[mWallCount - 1] - 1;
+                long depth = (long) Math.min(height, mWallHeights[mWallCount - 1]) - bottomHeight;
+                mWaterAmount += depth * width;
+            }
+
+            if (mWallCount > 0 && mWallHeights[mWallCount - 1] == height) {
+                mWallPositions[mWallCount - 1] = mColumnCount;
+            } else {
+                pushWall(height, mColumnCount);
+            }
+            mColumnCount++;
+            return this;
+        }
+
+        public Session accept(final int[] chunk, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                accept(chunk[i]);
+            }
+            return this;
+        }
+
+        public long getWaterAmount() {
+            return mWaterAmount;
+        }
+
+        public long getColumnCount() {
+            return mColumnCount;
+        }
+
+        public int getPendingWallCount() {
+            return mWallCount;
+        }
+
+        private void pushWall(int height, long position) {
+            if (mWallCount == mWallHeights.length) {
+                mWallHeights = Arrays.copyOf(mWallHeights, mWallCount * 2);
+                mWallPositions = Arrays.copyOf(mWallPositions, mWallCount * 2);
+            }
+            mWallHeights[mWallCount] = height;
+            mWallPositions[mWallCount] = position;
+            mWallCount++;
+        }
+    }
+}
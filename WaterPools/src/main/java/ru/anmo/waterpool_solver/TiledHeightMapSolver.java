@@ -0,0 +1,217 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel height map solver working on square tiles.
+ * The water level of a cell is the lowest possible highest point on a path from it to the map edge. Every tile floods
+ * itself with {@link CellQueue} starting from its own edge cells, seeded with the map edge and with the current levels
+ * just outside the tile. Tiles are relaxed in parallel rounds, and a tile is flooded again only when a level on
+ * a neighbour's edge dropped in the previous round; levels only ever go down, so the rounds settle on the exact levels.
+ * <p>
+ * Neighbouring tiles read each other's edge levels while they are being lowered. Any value read is still an upper bound
+ * of the final one, and a changed edge always schedules the neighbour for the next round, so the races are harmless.
+ */
+@Component
+public class TiledHeightMapSolver implements IHeightMapSolver {
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    @Autowired
+    private ForkJoinPool pool;
+
+    @Value("${waterpools.heightmap.tile-size:" + DEFAULT_TILE_SIZE + "}")
+    private int tileSize;
+
+    @PostConstruct
+    void checkTileSize() {
+        if (tileSize < 3) {
+            throw new IllegalArgumentException("Incorrect waterpools.heightmap.tile-size = " + tileSize + ", should be at least 3");
+        }
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] heights, int width) {
+        if (heights.length <= (long) tileSize * tileSize) {
+            return PriorityFloodHeightMapSolver.solve(heights, width);
+        }
+        return solve(pool, heights, width, tileSize);
+    }
+
+
+
+    static long solve(ForkJoinPool pool, final int[] heights, int width, int tileSize) {
+        int rows = PriorityFloodHeightMapSolver.rowCount(heights, width);
+        // Maps with 0,1,2 rows or columns are always dry
+        if (width < 3 || rows < 3) {
+            return 0;
+        }
+
+        TileGrid grid = new TileGrid(heights, width, rows, tileSize);
+        boolean[] dirty = new boolean[grid.mTileCount];
+        Arrays.fill(dirty, true);
+
+        while (true) {
+            final boolean[] currentDirty = dirty;
+            int[] dirtyTiles = IntStream.range(0, grid.mTileCount).filter(tile -> currentDirty[tile]).toArray();
+            if (dirtyTiles.length == 0) {
+                break;
+            }
+            boolean[] nextDirty = new boolean[grid.mTileCount];
+            pool.submit(() -> Arrays.stream(dirtyTiles).parallel().forEach(tile -> grid.relax(tile, nextDirty))).join();
+            dirty = nextDirty;
+        }
+
+        return pool.submit(() -> IntStream.range(0, heights.length).parallel()
+                .mapToLong(cell -> (long) grid.mLevels[cell] - heights[cell])
+                .sum()).join();
+    }
+
+    private static class TileGrid {
+        private final int[] mHeights;
+        private final int[] mLevels;
+        private final int mWidth;
+        private final int mRows;
+        private final int mTileSize;
+        private final int mTileColumns;
+        private final int mTileCount;
+        private final int mMinHeight;
+        private final int mMaxHeight;
+
+        TileGrid(int[] heights, int width, int rows, int tileSize) {
+            mHeights = heights;
+            mWidth = width;
+            mRows = rows;
+            mTileSize = tileSize;
+            mTileColumns = (width + tileSize - 1) / tileSize;
+            mTileCount = mTileColumns * ((rows + tileSize - 1) / tileSize);
+            mLevels = new int[heights.length];
+            Arrays.fill(mLevels, Integer.MAX_VALUE);
+            mMinHeight = Arrays.stream(heights).min().orElse(0);
+            mMaxHeight = Arrays.stream(heights).max().orElse(0);
+        }
+
+        /**
+         * Floods one tile from its edge and lowers the levels of its cells.
+         * Marks the neighbouring tiles in {@code nextDirty} when a level on the tile edge went down.
+         */
+        void relax(int tile, boolean[] nextDirty) {
+            int x0 = (tile % mTileColumns) * mTileSize;
+            int y0 = (tile / mTileColumns) * mTileSize;
+            int x1 = Math.min(x0 + mTileSize, mWidth);
+            int y1 = Math.min(y0 + mTileSize, mRows);
+            int tileWidth = x1 - x0;
+            int tileHeight = y1 - y0;
+
+            int[] tentative = new int[tileWidth * tileHeight];
+            Arrays.fill(tentative, Integer.MAX_VALUE);
+            boolean[] done = new boolean[tentative.length];
+            CellQueue queue = new CellQueue(mMinHeight, mMaxHeight, 2 * (tileWidth + tileHeight));
+
+            for (int y = y0; y < y1; y++) {
+                boolean wholeRow = y == y0 || y == y1 - 1;
+                for (int x = x0; x < x1; x += wholeRow ? 1 : Math.max(1, tileWidth - 1)) {
+                    int seed = seedLevel(x, y, x0, y0, x1, y1);
+                    int local = (y - y0) * tileWidth + (x - x0);
+                    if (seed < tentative[local]) {
+                        tentative[local] = seed;
+                        queue.push(seed, local);
+                    }
+                }
+            }
+
+            boolean edgeLowered = false;
+            while (!queue.isEmpty()) {
+                long entry = queue.pop();
+                int level = CellQueue.level(entry);
+                int local = CellQueue.cell(entry);
+                if (done[local]) {
+                    continue;
+                }
+                done[local] = true;
+
+                int localX = local % tileWidth;
+                int localY = local / tileWidth;
+                int cell = (y0 + localY) * mWidth + x0 + localX;
+                if (level < mLevels[cell]) {
+                    mLevels[cell] = level;
+                    edgeLowered |= localX == 0 || localY == 0 || localX == tileWidth - 1 || localY == tileHeight - 1;
+                }
+
+                if (localX > 0) {
+                    flood(queue, tentative, done, local - 1, cell - 1, level);
+                }
+                if (localX < tileWidth - 1) {
+                    flood(queue, tentative, done, local + 1, cell + 1, level);
+                }
+                if (localY > 0) {
+                    flood(queue, tentative, done, local - tileWidth, cell - mWidth, level);
+                }
+                if (localY < tileHeight - 1) {
+                    flood(queue, tentative, done, local + tileWidth, cell + mWidth, level);
+                }
+            }
+
+            if (edgeLowered) {
+                int tileX = tile % mTileColumns;
+                if (tileX > 0) {
+                    nextDirty[tile - 1] = true;
+                }
+                if (tileX < mTileColumns - 1) {
+                    nextDirty[tile + 1] = true;
+                }
+                if (tile >= mTileColumns) {
+                    nextDirty[tile - mTileColumns] = true;
+                }
+                if (tile + mTileColumns < mTileCount) {
+                    nextDirty[tile + mTileColumns] = true;
+                }
+            }
+        }
+
+        /**
+         * Level a tile edge cell starts from: its own height on the map edge, otherwise the lowest way out
+         * through the cells just outside the tile, {@link Integer#MAX_VALUE} while none of them is reached yet.
+         */
+        private int seedLevel(int x, int y, int x0, int y0, int x1, int y1) {
+            int cell = y * mWidth + x;
+            int height = mHeights[cell];
+            if (x == 0 || y == 0 || x == mWidth - 1 || y == mRows - 1) {
+                return height;
+            }
+
+            int outside = Integer.MAX_VALUE;
+            if (x == x0) {
+                outside = Math.min(outside, mLevels[cell - 1]);
+            }
+            if (x == x1 - 1) {
+                outside = Math.min(outside, mLevels[cell + 1]);
+            }
+            if (y == y0) {
+                outside = Math.min(outside, mLevels[cell - mWidth]);
+            }
+            if (y == y1 - 1) {
+                outside = Math.min(outside, mLevels[cell + mWidth]);
+            }
+            return outside == Integer.MAX_VALUE ? outside : Math.max(height, outside);
+        }
+
+        private void flood(CellQueue queue, int[] tentative, boolean[] done, int local, int cell, int level) {
+            if (done[local]) {
+                return;
+            }
+            int floodLevel = Math.max(level, mHeights[cell]);
+            if (floodLevel < tentative[local]) {
+                tentative[local] = floodLevel;
+                queue.push(floodLevel, local);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ru.anmo.waterpool_solver;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels, loaded only when {@code jdk.incubator.vector} is present in the boot layer.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private VectorKernels() {
+    }
+
+    /**
+     * Returns {@code -1} when the landscape has negative heights or heights too big to be summed in int lanes,
+     * the caller should fall back to scalar code then.
+     */
+    static long solve(final int[] landscape) {
+        long heightRange = findHeightRange(landscape);
+        int maxHeight = (int) (heightRange >> 32);
+        int minHeight = (int) heightRange;
+        if (minHeight < 0) {
+            return -1;
+        }
+        // Water sums are kept in int lanes and flushed to long before any lane may overflow
+        int flushPeriod = Integer.MAX_VALUE / LANES / Math.max(1, maxHeight);
+        if (flushPeriod == 0) {
+            return -1;
+        }
+
+        int peak = findFirst(landscape, maxHeight);
+        return sumBeforePeak(landscape, peak, flushPeriod) + sumAfterPeak(landscape, peak, flushPeriod);
+    }
+
+
+
+    // Max height in the upper half, min height in the lower half.
+    // Kept apart from solve(): inlined there, C2 stops scalar-replacing the vectors and boxes them on every iteration
+    private static long findHeightRange(final int[] landscape) {
+        IntVector maxHeights = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        IntVector minHeights = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(landscape.length); i < bound; i += LANES) {
+            IntVector heights = IntVector.fromArray(SPECIES, landscape, i);
+            maxHeights = maxHeights.max(heights);
+            minHeights = minHeights.min(heights);
+        }
+        int maxHeight = maxHeights.reduceLanes(VectorOperators.MAX);
+        int minHeight = minHeights.reduceLanes(VectorOperators.MIN);
+        for (; i < landscape.length; i++) {
+            maxHeight = Math.max(maxHeight, landscape[i]);
+            minHeight = Math.min(minHeight, landscape[i]);
+        }
+        return ((long) maxHeight << 32) | (minHeight & 0xFFFFFFFFL);
+    }
+
+    private static int findFirst(final int[] landscape, int height) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(landscape.length); i < bound; i += LANES) {
+            int lane = IntVector.fromArray(SPECIES, landscape, i).eq(height).firstTrue();
+            if (lane < LANES) {
+                return i + lane;
+            }
+        }
+        while (landscape[i] != height) {
+            i++;
+        }
+        return i;
+    }
+
+    // Water left of the peak is bounded by the prefix maximum
+    private static long sumBeforePeak(final int[] landscape, int peak, int flushPeriod) {
+        IntVector lowest = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        IntVector sums = IntVector.zero(SPECIES);
+        int carry = Integer.MIN_VALUE;
+        int untilFlush = flushPeriod;
+        long sum = 0;
+
+        int i = 0;
+        for (int bound = SPECIES.loopBound(peak); i < bound; i += LANES) {
+            IntVector heights = IntVector.fromArray(SPECIES, landscape, i);
+            IntVector prefixMax = heights;
+            for (int shift = 1; shift < LANES; shift <<= 1) {
+                prefixMax = prefixMax.max(lowest.slice(LANES - shift, prefixMax));
+            }
+            prefixMax = prefixMax.max(carry);
+            carry = prefixMax.lane(LANES - 1);
+            sums = sums.add(prefixMax.sub(heights));
+            if (--untilFlush == 0) {
+                sum += sums.reduceLanesToLong(VectorOperators.ADD);
+                sums = IntVector.zero(SPECIES);
+                untilFlush = flushPeriod;
+            }
+        }
+
+        sum += sums.reduceLanesToLong(VectorOperators.ADD);
+        for (; i < peak; i++) {
+            carry = Math.max(carry, landscape[i]);
+            sum += carry - landscape[i];
+        }
+        return sum;
+    }
+
+    // Water right of the peak is bounded by the suffix maximum
+    private static long sumAfterPeak(final int[] landscape, int peak, int flushPeriod) {
+        IntVector lowest = IntVector.broadcast(SPECIES, Integer.MIN_VALUE);
+        IntVector sums = IntVector.zero(SPECIES);
+        int carry = Integer.MIN_VALUE;
+        int untilFlush = flushPeriod;
+        long sum = 0;
+
+        int i = landscape.length - LANES;
+        for (; i > peak; i -= LANES) {
+            IntVector heights = IntVector.fromArray(SPECIES, landscape, i);
+            IntVector suffixMax = heights;
+            for (int shift = 1; shift < LANES; shift <<= 1) {
+                suffixMax = suffixMax.max(suffixMax.slice(shift, lowest));
+            }
+            suffixMax = suffixMax.max(carry);
+            carry = suffixMax.lane(0);
+            sums = sums.add(suffixMax.sub(heights));
+            if (--untilFlush == 0) {
+                sum += sums.reduceLanesToLong(VectorOperators.ADD);
+                sums = IntVector.zero(SPECIES);
+                untilFlush = flushPeriod;
+            }
+        }
+
+        sum += sums.reduceLanesToLong(VectorOperators.ADD);
+        for (int j = i + LANES - 1; j > peak; j--) {
+            carry = Math.max(carry, landscape[j]);
+            sum += carry - landscape[j];
+        }
+        return sum;
+    }
+}
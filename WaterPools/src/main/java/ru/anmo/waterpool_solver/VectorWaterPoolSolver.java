@@ -0,0 +1,36 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * SIMD solver on top of the incubating Vector API.
+ * Finds the highest peak with a vectorized max-reduction, then sums {@code prefixMax - height} on its left
+ * and {@code suffixMax - height} on its right, computing the running maxima with in-register scans, summing in int lanes.
+ * Needs {@code --add-modules jdk.incubator.vector}, without it (or with negative or huge heights) the two-pointer pass is used.
+ * The kernels only read {@code int} heights: narrow, off-heap and run-length landscapes always take the two-pointer pass,
+ * on the calling thread, like every solve of this single-threaded engine.
+ */
+@Component
+public class VectorWaterPoolSolver implements IWaterPoolSolver {
+
+    private static final boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        // Landscapes with 0,1,2 lengths are always dry
+        if (landscape.length < 3) {
+            return 0;
+        }
+        if (VECTOR_API_AVAILABLE) {
+            long waterAmount = VectorKernels.solve(landscape);
+            if (waterAmount >= 0) {
+                return waterAmount;
+            }
+        }
+        return SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.anmo.waterpool_solver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.anmo.configuration.VirtualThreadConfiguration;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Serves every solve on its own request thread, virtual where the runtime has them.
+ * The request thread solves small landscapes itself through {@link AdaptiveWaterPoolSolver} and only hands
+ * large ones to the bounded work-stealing pool, whose fork/join tasks never block.
+ * So thousands of small concurrent requests neither wait behind a few huge ones nor tie up the pool threads.
+ */
+@Component
+@Profile(VirtualThreadConfiguration.PROFILE)
+public class VirtualThreadWaterPoolSolver implements IWaterPoolSolver {
+
+    @Autowired
+    @Qualifier(VirtualThreadConfiguration.REQUEST_EXECUTOR)
+    private ExecutorService requestExecutor;
+
+    @Autowired
+    private AdaptiveWaterPoolSolver solver;
+
+    public Future<Long> submit(int[] landscape) {
+        return requestExecutor.submit(() -> solver.calculateWaterAmount(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(int[] landscape) {
+        return await(submit(landscape));
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return await(requestExecutor.submit(() -> solver.calculateWaterAmount(landscape)));
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return await(requestExecutor.submit(() -> solver.calculateWaterAmount(landscape)));
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return await(requestExecutor.submit(() -> solver.calculateWaterAmount(landscape)));
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return await(requestExecutor.submit(() -> solver.calculateWaterAmount(landscape)));
+    }
+
+    /**
+     * The whole batch is served by one request thread, which hands the large landscapes to the pool.
+     */
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return await(requestExecutor.submit(() -> solver.calculateWaterAmounts(landscapes)));
+    }
+
+
+
+    private static <T> T await(Future<T> solve) {
+        try {
+            return solve.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the solve", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solve failed", e.getCause());
+        }
+    }
+}
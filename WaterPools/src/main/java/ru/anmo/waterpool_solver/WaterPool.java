@@ -0,0 +1,59 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.Objects;
+
+/**
+ * One body of water: a maximal run of flooded columns {@code [startIndex, endIndex)}.
+ * All of its columns share the same water surface {@code level}.
+ */
+public final class WaterPool {
+    private final int mStartIndex;
+    private final int mEndIndex;
+    private final int mLevel;
+    private final long mVolume;
+
+    public WaterPool(int startIndexInclusive, int endIndexExclusive, int level, long volume) {
+        mStartIndex = startIndexInclusive;
+        mEndIndex = endIndexExclusive;
+        mLevel = level;
+        mVolume = volume;
+    }
+
+    public int getStartIndex() {
+        return mStartIndex;
+    }
+
+    public int getEndIndex() {
+        return mEndIndex;
+    }
+
+    public int getLevel() {
+        return mLevel;
+    }
+
+    public long getVolume() {
+        return mVolume;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WaterPool other)) {
+            return false;
+        }
+        return mStartIndex == other.mStartIndex && mEndIndex == other.mEndIndex
+                && mLevel == other.mLevel && mVolume == other.mVolume;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mStartIndex, mEndIndex, mLevel, mVolume);
+    }
+
+    @Override
+    public String toString() {
+        return "WaterPool[" + mStartIndex + ", " + mEndIndex + "), level = " + mLevel + ", volume = " + mVolume;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves many landscapes with one fork/join task tree.
+ * Small batches run as a plain loop on the caller thread; bigger ones are split across landscapes
+ * by column count, and every landscape is solved by the two-pointer pass inside a single task.
+ */
+final class WaterPoolBatch {
+
+    static final int COLUMNS_PER_TASK = 1 << 16;
+
+    private WaterPoolBatch() {
+    }
+
+    static long[] solve(ForkJoinPool pool, final int[][] landscapes) {
+        long[] waterAmounts = new long[landscapes.length];
+
+        long[] columnsBefore = new long[landscapes.length + 1];
+        for (int i = 0; i < landscapes.length; i++) {
+            columnsBefore[i + 1] = columnsBefore[i] + landscapes[i].length;
+        }
+
+        if (columnsBefore[landscapes.length] <= COLUMNS_PER_TASK) {
+            solveSequentially(landscapes, waterAmounts, 0, landscapes.length);
+        } else {
+            pool.invoke(new BatchTask(landscapes, columnsBefore, waterAmounts, 0, landscapes.length));
+        }
+        return waterAmounts;
+    }
+
+    private static void solveSequentially(final int[][] landscapes, long[] waterAmounts, int startIndexInclusive, int endIndexExclusive) {
+        for (int i = startIndexInclusive; i < endIndexExclusive; i++) {
+            int[] landscape = landscapes[i];
+            waterAmounts[i] = landscape.length < 3 ? 0 : SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+        }
+    }
+
+
+
+    private static class BatchTask extends RecursiveAction {
+        private final int[][] mLandscapes;
+        private final long[] mColumnsBefore;
+        private final long[] mWaterAmounts;
+        private final int mStartIndex;
+        private final int mEndIndex;
+
+        BatchTask(int[][] landscapes, long[] columnsBefore, long[] waterAmounts, int startIndexInclusive, int endIndexExclusive) {
+            mLandscapes = landscapes;
+            mColumnsBefore = columnsBefore;
+            mWaterAmounts = waterAmounts;
+            mStartIndex = startIndexInclusive;
+            mEndIndex = endIndexExclusive;
+        }
+
+        @Override
+        protected void compute() {
+            long columns = mColumnsBefore[mEndIndex] - mColumnsBefore[mStartIndex];
+            if (columns <= COLUMNS_PER_TASK || mEndIndex - mStartIndex == 1) {
+                solveSequentially(mLandscapes, mWaterAmounts, mStartIndex, mEndIndex);
+                return;
+            }
+
+            int middle = splitByColumns(mColumnsBefore[mStartIndex] + columns / 2);
+            invokeAll(new BatchTask(mLandscapes, mColumnsBefore, mWaterAmounts, mStartIndex, middle),
+                      new BatchTask(mLandscapes, mColumnsBefore, mWaterAmounts, middle, mEndIndex));
+        }
+
+        // First landscape index in (start, end) whose columns begin at or after the target column
+        private int splitByColumns(long targetColumn) {
+            int low = mStartIndex + 1;
+            int high = mEndIndex - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (mColumnsBefore[middle] < targetColumn) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package ru.anmo.waterpool_solver;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
-import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
+import ru.anmo.world_generator.Landscape;
+import ru.anmo.world_generator.RunLengthLandscape;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stateless solver, safe to share between threads.
+ * The executor is owned by {@link ru.anmo.configuration.AppConfiguration} and is never shut down here.
+ * Narrow, off-heap and run-length landscapes are solved in parallel by {@link ParallelPrefixWaterPoolSolver}.
+ */
 @Component
-@Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class WaterPoolSolver implements IWaterPoolSolver{
 
     @Autowired
-    private ExecutorService executor;
+    private ForkJoinPool executor;
+
+    @Autowired
+    private SolverMetrics metrics;
+
+    @Autowired
+    private ParallelPrefixWaterPoolSolver parallelSolver;
 
     private static final int LENGTH_PER_TASK = 100;
 
@@ -28,15 +40,43 @@ public class WaterPoolSolver implements IWaterPoolSolver{
         }
 
         try {
-            return calculateWater(landscape, 0, landscape.length, Border.EMPTY, Border.EMPTY);
+            if (!metrics.isEnabled()) {
+                return calculateWater(landscape, 0, landscape.length, Border.EMPTY, Border.EMPTY, 0, null);
+            }
+            FanOutStats stats = new FanOutStats();
+            long waterAmount = calculateWater(landscape, 0, landscape.length, Border.EMPTY, Border.EMPTY, 0, stats);
+            metrics.recordRecursiveSolve(landscape.length, stats.mMaxDepth.get(), stats.mSubmittedTasks.sum(), stats.mBlockedNanos.sum());
+            return waterAmount;
         }
         catch (Exception e) {
             System.out.println("Something went wrong: " + e.getLocalizedMessage());
             return -1;
         }
-        finally {
-            executor.shutdown();
-        }
+    }
+
+    @Override
+    public long calculateWaterAmount(short[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(byte[] landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(Landscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long calculateWaterAmount(RunLengthLandscape landscape) {
+        return parallelSolver.calculateWaterAmount(landscape);
+    }
+
+    @Override
+    public long[] calculateWaterAmounts(int[][] landscapes) {
+        return WaterPoolBatch.solve(executor, landscapes);
     }
 
 
@@ -45,8 +85,13 @@ public class WaterPoolSolver implements IWaterPoolSolver{
                                 int startIndexInclusive,
                                 int endIndexExclusive,
                                 final Border leftBorder,
-                                final Border rightBorder) throws Exception {
+                                final Border rightBorder,
+                                int depth,
+                                final FanOutStats stats) throws Exception {
 
+        if (stats != null) {
+            stats.mMaxDepth.accumulateAndGet(depth, Math::max);
+        }
         int currentSectionLength = endIndexExclusive - startIndexInclusive;
         if (currentSectionLength <= 0) {
             return 0;
@@ -58,42 +103,57 @@ public class WaterPoolSolver implements IWaterPoolSolver{
             return calculateWaterSingleSectionWhenAnySideIsEmpty();
         }
 
-        MaxHeightEntry maxPeaks = findMaxHeight(landscapeSection, startIndexInclusive, endIndexExclusive);
+        MaxHeightEntry maxPeaks = findMaxHeight(landscapeSection, startIndexInclusive, endIndexExclusive, stats);
         int mostLeftPeak  = maxPeaks.getMostLeftPosition();
         int mostRightPeak = maxPeaks.getMostRightPosition();
 
         if (rightBorder == Border.WALL) {
-            Future<Long> waterAmountFromLeftPeakToEnd = calculateWaterBetweenPositions(landscapeSection, mostLeftPeak + 1, endIndexExclusive, maxPeaks.getHeight());
-            return calculateWaterFromStartToLeftPeak(landscapeSection, startIndexInclusive, mostLeftPeak, leftBorder)
-                    + waterAmountFromLeftPeakToEnd.get();
+            Future<Long> waterAmountFromLeftPeakToEnd = calculateWaterBetweenPositions(landscapeSection, mostLeftPeak + 1, endIndexExclusive, maxPeaks.getHeight(), stats);
+            return calculateWaterFromStartToLeftPeak(landscapeSection, startIndexInclusive, mostLeftPeak, leftBorder, depth, stats)
+                    + await(waterAmountFromLeftPeakToEnd, stats);
         }
         if (leftBorder == Border.WALL) {
-            Future<Long> waterAmountFromStartToRightPeak = calculateWaterBetweenPositions(landscapeSection, startIndexInclusive, mostRightPeak, maxPeaks.getHeight());
-            return calculateWaterFromRightPeakToEnd(landscapeSection, mostRightPeak + 1, endIndexExclusive, rightBorder)
-                    + waterAmountFromStartToRightPeak.get();
+            Future<Long> waterAmountFromStartToRightPeak = calculateWaterBetweenPositions(landscapeSection, startIndexInclusive, mostRightPeak, maxPeaks.getHeight(), stats);
+            return calculateWaterFromRightPeakToEnd(landscapeSection, mostRightPeak + 1, endIndexExclusive, rightBorder, depth, stats)
+                    + await(waterAmountFromStartToRightPeak, stats);
         }
 
-        Future<Long> waterAmountBetweenStartAndLeftPeak  = executor.submit(() -> calculateWaterFromStartToLeftPeak(landscapeSection, startIndexInclusive, mostLeftPeak, leftBorder));
-        Future<Long> waterAmountBetweenLeftAndRightPeaks = calculateWaterBetweenPositions(landscapeSection, mostLeftPeak + 1, mostRightPeak, maxPeaks.getHeight());
-        Future<Long> waterAmountBetweenRightPeakAndEnd   = executor.submit(() -> calculateWaterFromRightPeakToEnd(landscapeSection, mostRightPeak + 1, endIndexExclusive, rightBorder));
+        Future<Long> waterAmountBetweenStartAndLeftPeak  = executor.submit(() -> calculateWaterFromStartToLeftPeak(landscapeSection, startIndexInclusive, mostLeftPeak, leftBorder, depth, stats));
+        Future<Long> waterAmountBetweenLeftAndRightPeaks = calculateWaterBetweenPositions(landscapeSection, mostLeftPeak + 1, mostRightPeak, maxPeaks.getHeight(), stats);
+        Future<Long> waterAmountBetweenRightPeakAndEnd   = executor.submit(() -> calculateWaterFromRightPeakToEnd(landscapeSection, mostRightPeak + 1, endIndexExclusive, rightBorder, depth, stats));
+        if (stats != null) {
+            stats.mSubmittedTasks.add(2);
+        }
 
-        return waterAmountBetweenLeftAndRightPeaks.get()
-                + waterAmountBetweenStartAndLeftPeak.get()
-                + waterAmountBetweenRightPeakAndEnd.get();
+        return await(waterAmountBetweenLeftAndRightPeaks, stats)
+                + await(waterAmountBetweenStartAndLeftPeak, stats)
+                + await(waterAmountBetweenRightPeakAndEnd, stats);
     }
 
 
-    private long calculateWaterFromStartToLeftPeak(final int[] landscapeSection, int startIndexInclusive, int stopIndexExclusive, final Border leftBorder) throws Exception {
-        return calculateWater(landscapeSection, startIndexInclusive, stopIndexExclusive, leftBorder, Border.WALL);
+    private long calculateWaterFromStartToLeftPeak(final int[] landscapeSection, int startIndexInclusive, int stopIndexExclusive, final Border leftBorder,
+                                                   int depth, final FanOutStats stats) throws Exception {
+        return calculateWater(landscapeSection, startIndexInclusive, stopIndexExclusive, leftBorder, Border.WALL, depth + 1, stats);
+    }
+
+    private long calculateWaterFromRightPeakToEnd(final int[] landscapeSection, int startIndexInclusive, int stopIndexExclusive, final Border rightBorder,
+                                                  int depth, final FanOutStats stats) throws Exception {
+        return calculateWater(landscapeSection, startIndexInclusive, stopIndexExclusive, Border.WALL, rightBorder, depth + 1, stats);
     }
 
-    private long calculateWaterFromRightPeakToEnd(final int[] landscapeSection, int startIndexInclusive, int stopIndexExclusive, final Border rightBorder) throws Exception {
-        return calculateWater(landscapeSection, startIndexInclusive, stopIndexExclusive, Border.WALL, rightBorder);
+    private static long await(Future<Long> future, final FanOutStats stats) throws Exception {
+        if (stats == null) {
+            return future.get();
+        }
+        long startTime = System.nanoTime();
+        long result = future.get();
+        stats.mBlockedNanos.add(System.nanoTime() - startTime);
+        return result;
     }
 
 
 
-    private MaxHeightEntry findMaxHeight(final int[] landscapeSection, int startIndexInclusive, int endIndexExclusive) throws Exception {
+    private MaxHeightEntry findMaxHeight(final int[] landscapeSection, int startIndexInclusive, int endIndexExclusive, final FanOutStats stats) throws Exception {
         List<Callable<MaxHeightEntry>> tasks = new ArrayList<>();
 
         for (int i = startIndexInclusive; i < endIndexExclusive;) {
@@ -102,7 +162,13 @@ public class WaterPoolSolver implements IWaterPoolSolver{
             i = currTaskEnd;
         }
 
+        if (stats == null) {
+            return mergeMaxHeightEntryFromTasks(executor.invokeAll(tasks));
+        }
+        stats.mSubmittedTasks.add(tasks.size());
+        long startTime = System.nanoTime();
         List<Future<MaxHeightEntry>> results = executor.invokeAll(tasks);
+        stats.mBlockedNanos.add(System.nanoTime() - startTime);
         return mergeMaxHeightEntryFromTasks(results);
     }
 
@@ -129,28 +195,11 @@ public class WaterPoolSolver implements IWaterPoolSolver{
     }
 
     private MaxHeightEntry mergeMaxHeightEntryFromTasks(List<Future<MaxHeightEntry>> results) {
-        int finalMaxHeight = -1;
-        int finalMostLeftPosition = Integer.MAX_VALUE;
-        int finalMostRightPosition = -1;
-
+        MaxHeightEntry merged = MaxHeightEntry.EMPTY;
         for (MaxHeightEntry result : results.stream().map(Future::resultNow).toList()) {
-            if (result.getHeight() > finalMaxHeight) {
-                finalMaxHeight = result.getHeight();
-                finalMostLeftPosition = result.getMostLeftPosition();
-                finalMostRightPosition = result.getMostRightPosition();
-                continue;
-            }
-            if (result.getHeight() == finalMaxHeight) {
-                if (result.getMostLeftPosition() < finalMostLeftPosition) {
-                    finalMostRightPosition = result.getMostLeftPosition();
-                }
-                if (result.getMostRightPosition() > finalMostRightPosition) {
-                    finalMostRightPosition = result.getMostRightPosition();
-                }
-            }
+            merged = MaxHeightEntry.merge(merged, result);
         }
-
-        return new MaxHeightEntry(finalMaxHeight, finalMostLeftPosition, finalMostRightPosition);
+        return merged;
     }
 
     private static int calculateWaterSingleSectionBetweenWalls(final int[] landscapeSection,
@@ -169,7 +218,8 @@ public class WaterPoolSolver implements IWaterPoolSolver{
     private Future<Long> calculateWaterBetweenPositions(final int[] landscapeSection,
                                                         int startPositionInclusive,
                                                         int endPositionExclusive,
-                                                        int targetHeight) {
+                                                        int targetHeight,
+                                                        final FanOutStats stats) {
         Callable<Long> result = () -> {
             long sum = 0;
             for (int i = startPositionInclusive; i < endPositionExclusive; i++) {
@@ -178,6 +228,9 @@ public class WaterPoolSolver implements IWaterPoolSolver{
             return sum;
         };
 
+        if (stats != null) {
+            stats.mSubmittedTasks.increment();
+        }
         return executor.submit(result);
     }
 
@@ -185,28 +238,13 @@ public class WaterPoolSolver implements IWaterPoolSolver{
 
 
 
-    private static class MaxHeightEntry {
-        private final int mHeight;
-        private final int mMostLeftPosition;
-        private final int mMostRightPosition;
-
-        MaxHeightEntry(int height, int mostLeftPosition, int mostRightPosition) {
-            mHeight = height;
-            mMostLeftPosition = mostLeftPosition;
-            mMostRightPosition = mostRightPosition;
-        }
-
-        public int getHeight() {
-            return mHeight;
-        }
-
-        public int getMostLeftPosition() {
-            return mMostLeftPosition;
-        }
-
-        public int getMostRightPosition() {
-            return mMostRightPosition;
-        }
+    /**
+     * Fan-out of one solve, shared by every task the solve spawns.
+     */
+    private static class FanOutStats {
+        private final AtomicInteger mMaxDepth = new AtomicInteger();
+        private final LongAdder mSubmittedTasks = new LongAdder();
+        private final LongAdder mBlockedNanos = new LongAdder();
     }
 
     private enum Border {
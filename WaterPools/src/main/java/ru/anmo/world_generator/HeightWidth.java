@@ -0,0 +1,49 @@
+package ru.anmo.world_generator;
+
+/**
+ * Number of bytes used to store one column height.
+ * Narrow widths hold unsigned heights.
+ */
+public enum HeightWidth {
+    BYTE(Byte.BYTES, 0xFF),
+    SHORT(Short.BYTES, 0xFFFF),
+    INT(Integer.BYTES, Integer.MAX_VALUE);
+
+    private final int mBytes;
+    private final int mMaxHeight;
+
+    HeightWidth(int bytes, int maxHeight) {
+        mBytes = bytes;
+        mMaxHeight = maxHeight;
+    }
+
+    public int getBytes() {
+        return mBytes;
+    }
+
+    public int getMaxHeight() {
+        return mMaxHeight;
+    }
+
+    public boolean fits(int height) {
+        return height >= 0 && height <= mMaxHeight;
+    }
+
+    public static HeightWidth narrowestFor(int maxHeight) {
+        for (HeightWidth width : values()) {
+            if (width.fits(maxHeight)) {
+                return width;
+            }
+        }
+        return INT;
+    }
+
+    public static HeightWidth fromBytes(int bytes) {
+        for (HeightWidth width : values()) {
+            if (width.mBytes == bytes) {
+                return width;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported height width = " + bytes + " bytes");
+    }
+}
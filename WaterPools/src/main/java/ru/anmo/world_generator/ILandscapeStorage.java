@@ -0,0 +1,21 @@
+package ru.anmo.world_generator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Binary landscape files, see {@link LandscapeFileStorage} for the layout.
+ */
+public interface ILandscapeStorage {
+
+    void write(Path file, int[] landscape) throws IOException;
+    void write(Path file, int[] landscape, HeightWidth width) throws IOException;
+    int[] load(Path file) throws IOException;
+    MappedLandscape map(Path file) throws IOException;
+
+    class IncorrectLandscapeFileException extends IOException {
+        IncorrectLandscapeFileException(String err) {
+            super(err);
+        }
+    }
+}
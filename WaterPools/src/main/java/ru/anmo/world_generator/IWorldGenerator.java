@@ -5,6 +5,15 @@ public interface IWorldGenerator {
     int[] generateWorld(int... manualHeights);
     int[] generateWorld(int length, int maxHeight) throws IncorrectWorldParametersException;
     int[] generateRandomWorld();
+    int[] generateWorld(int length, int maxHeight, long seed) throws IncorrectWorldParametersException;
+    int[] generateWorld(WorldShape shape, int length, int maxHeight, long seed) throws IncorrectWorldParametersException;
+    int[] generateHeightMap(int width, int rows, int maxHeight, long seed) throws IncorrectWorldParametersException;
+    OffHeapLandscape generateWorld(LandscapeArena arena, long length, int maxHeight, long seed) throws IncorrectWorldParametersException;
+    RunLengthLandscape generateRunLengthWorld(long length, int maxHeight, long maxRunLength, long seed) throws IncorrectWorldParametersException;
+
+    short[] generateShortWorld(int length, int maxHeight) throws IncorrectWorldParametersException;
+    byte[] generateByteWorld(int length, int maxHeight) throws IncorrectWorldParametersException;
+    NarrowWorld generateNarrowWorld(int length, int maxHeight) throws IncorrectWorldParametersException;
 
     class IncorrectWorldParametersException extends Exception {
         IncorrectWorldParametersException(String err) {
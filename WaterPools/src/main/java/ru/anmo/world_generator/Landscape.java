@@ -0,0 +1,83 @@
+package ru.anmo.world_generator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Landscape stored outside the Java heap, in segments of {@link #getColumnsPerSegment()} columns.
+ * Every segment holds a whole number of columns, so a column never straddles two segments,
+ * and columns are indexed with {@code long}, so a landscape may be longer than any array.
+ * <p>
+ * Heights are read through a {@link Reader}, which keeps the memory of the landscape alive until it is closed.
+ */
+public interface Landscape {
+    HeightWidth getHeightWidth();
+    long getLength();
+    int getColumnsPerSegment();
+    int getSegmentCount();
+    int getSegmentLength(int segment);
+
+    /**
+     * Opens the landscape for reading; the {@link LandscapeArena} of an {@link OffHeapLandscape} can't be closed
+     * until the reader is.
+     *
+     * @throws IllegalStateException if the memory of the landscape is already freed
+     */
+    Reader read();
+
+    default int heightAt(long index) {
+        try (Reader reader = read()) {
+            return reader.heightAt(index);
+        }
+    }
+
+    /**
+     * Open view of a landscape. The tasks of one solve may share it, as long as it is closed after all of them finish.
+     */
+    final class Reader implements AutoCloseable {
+        private final LandscapeArena mArena;
+        private final HeightWidth mHeightWidth;
+        private final int mColumnsPerSegment;
+        private final ByteBuffer[] mSegments;
+        private volatile boolean mClosed;
+
+        /**
+         * @param arena arena already acquired for this reader, or null when the segments are freed by the GC
+         */
+        Reader(LandscapeArena arena, HeightWidth heightWidth, int columnsPerSegment, ByteBuffer[] segments) {
+            mArena = arena;
+            mHeightWidth = heightWidth;
+            mColumnsPerSegment = columnsPerSegment;
+            mSegments = segments;
+        }
+
+        public int heightAt(long index) {
+            return heightAt((int) (index / mColumnsPerSegment), (int) (index % mColumnsPerSegment));
+        }
+
+        /**
+         * @throws IllegalStateException if the reader is closed
+         */
+        public int heightAt(int segment, int indexInSegment) {
+            if (mClosed) {
+                throw new IllegalStateException("Landscape reader is closed");
+            }
+            ByteBuffer heights = mSegments[segment];
+            return switch (mHeightWidth) {
+                case BYTE -> heights.get(indexInSegment) & 0xFF;
+                case SHORT -> heights.getShort(indexInSegment << 1) & 0xFFFF;
+                case INT -> heights.getInt(indexInSegment << 2);
+            };
+        }
+
+        @Override
+        public void close() {
+            if (mClosed) {
+                return;
+            }
+            mClosed = true;
+            if (mArena != null) {
+                mArena.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.anmo.world_generator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns the direct memory of {@link OffHeapLandscape}s: everything allocated from an arena is freed together
+ * when the arena is closed, instead of whenever the GC gets to the buffers.
+ * Every {@link Landscape.Reader} and every write holds the arena: closing it while any of them is open throws
+ * {@link IllegalStateException} and leaves the memory alone, and landscapes throw it once their arena is closed.
+ * <p>
+ * Arenas may be shared between threads.
+ */
+public final class LandscapeArena implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 1 << 30;
+
+    // sun.misc.Unsafe.invokeCleaner(ByteBuffer), null if the runtime doesn't have it
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Buffers are left to the GC then
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final List<ByteBuffer> mBuffers = new ArrayList<>();
+    private long mAllocatedBytes;
+    private int mHolders;
+    private volatile boolean mOpen = true;
+
+    public OffHeapLandscape allocate(long length, HeightWidth width) {
+        return allocate(length, width, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Zero-filled landscape of {@code length} columns, cut into segments of at most {@code segmentBytes}.
+     */
+    public synchronized OffHeapLandscape allocate(long length, HeightWidth width, int segmentBytes) {
+        checkOpen();
+        int columnsPerSegment = segmentBytes / width.getBytes();
+        if (length < 0 || columnsPerSegment <= 0) {
+            throw new IllegalArgumentException("Can't allocate " + length + " columns in segments of " + segmentBytes + " bytes");
+        }
+
+        int segmentCount = (int) Math.max(1, (length + columnsPerSegment - 1) / columnsPerSegment);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            long columns = Math.min(columnsPerSegment, length - (long) segment * columnsPerSegment);
+            segments[segment] = ByteBuffer.allocateDirect((int) columns * width.getBytes()).order(ByteOrder.nativeOrder());
+            mBuffers.add(segments[segment]);
+            mAllocatedBytes += segments[segment].capacity();
+        }
+        return new OffHeapLandscape(this, width, length, columnsPerSegment, segments);
+    }
+
+    public synchronized long getAllocatedBytes() {
+        return mAllocatedBytes;
+    }
+
+    public boolean isOpen() {
+        return mOpen;
+    }
+
+    /**
+     * Frees every landscape of the arena.
+     *
+     * @throws IllegalStateException if a landscape of the arena is still being read or written
+     */
+    @Override
+    public synchronized void close() {
+        if (!mOpen) {
+            return;
+        }
+        if (mHolders > 0) {
+            throw new IllegalStateException("Landscape arena is still used by " + mHolders + " readers or writers");
+        }
+        mOpen = false;
+        for (ByteBuffer buffer : mBuffers) {
+            free(buffer);
+        }
+        mBuffers.clear();
+        mAllocatedBytes = 0;
+    }
+
+    void checkOpen() {
+        if (!mOpen) {
+            throw new IllegalStateException("Landscape arena is closed");
+        }
+    }
+
+    /**
+     * Keeps the arena from being closed until {@link #release()}.
+     */
+    synchronized void acquire() {
+        checkOpen();
+        mHolders++;
+    }
+
+    synchronized void release() {
+        mHolders--;
+    }
+
+
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer.capacity() == 0) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // Left to the GC
+        }
+    }
+}
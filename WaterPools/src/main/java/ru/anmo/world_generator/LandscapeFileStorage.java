@@ -0,0 +1,150 @@
+package ru.anmo.world_generator;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Landscape file layout, all numbers little-endian:
+ * <pre>
+ *  0  int   magic "WPLS"
+ *  4  byte  format version
+ *  5  byte  bytes per height (1, 2 or 4), narrow heights are unsigned
+ *  6  short reserved
+ *  8  long  number of columns
+ * 16        heights
+ * </pre>
+ */
+@Component
+public class LandscapeFileStorage implements ILandscapeStorage {
+    public static final int MAGIC = 0x534C5057;
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 16;
+    public static final int DEFAULT_SEGMENT_BYTES = 1 << 30;
+
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    @Override
+    public void write(Path file, int[] landscape) throws IOException {
+        int maxHeight = 0;
+        for (int height : landscape) {
+            maxHeight = Math.max(maxHeight, height);
+        }
+        write(file, landscape, HeightWidth.narrowestFor(maxHeight));
+    }
+
+    @Override
+    public void write(Path file, int[] landscape, HeightWidth width) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).put(VERSION).put((byte) width.getBytes()).putShort((short) 0).putLong(landscape.length);
+
+            for (int i = 0; i < landscape.length; i++) {
+                if (!width.fits(landscape[i])) {
+                    throw new IncorrectLandscapeFileException("Height " + landscape[i] + " at " + i + " doesn't fit into " + width);
+                }
+                if (buffer.remaining() < width.getBytes()) {
+                    writeFully(channel, buffer);
+                }
+                switch (width) {
+                    case BYTE -> buffer.put((byte) landscape[i]);
+                    case SHORT -> buffer.putShort((short) landscape[i]);
+                    case INT -> buffer.putInt(landscape[i]);
+                }
+            }
+            writeFully(channel, buffer);
+        }
+    }
+
+    @Override
+    public int[] load(Path file) throws IOException {
+        MappedLandscape mappedLandscape = map(file);
+        if (mappedLandscape.getLength() > Integer.MAX_VALUE - 8) {
+            throw new IncorrectLandscapeFileException("Landscape of " + mappedLandscape.getLength() + " columns doesn't fit into an array, map it instead");
+        }
+
+        int[] landscape = new int[(int) mappedLandscape.getLength()];
+        int index = 0;
+        try (Landscape.Reader reader = mappedLandscape.read()) {
+            for (int segment = 0; segment < mappedLandscape.getSegmentCount(); segment++) {
+                for (int i = 0, length = mappedLandscape.getSegmentLength(segment); i < length; i++) {
+                    landscape[index++] = reader.heightAt(segment, i);
+                }
+            }
+        }
+        return landscape;
+    }
+
+    @Override
+    public MappedLandscape map(Path file) throws IOException {
+        return map(file, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * @param segmentBytes size of one mapped segment, a power of two not smaller than 4
+     */
+    public MappedLandscape map(Path file, int segmentBytes) throws IOException {
+        if (Integer.bitCount(segmentBytes) != 1 || segmentBytes < Integer.BYTES) {
+            throw new IllegalArgumentException("Incorrect segmentBytes = " + segmentBytes + ", should be a power of two not smaller than " + Integer.BYTES);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining()) {
+                throw new IncorrectLandscapeFileException("File is too short for a landscape header: " + file);
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IncorrectLandscapeFileException("Not a landscape file: " + file);
+            }
+            byte version = header.get();
+            if (version != VERSION) {
+                throw new IncorrectLandscapeFileException("Unsupported landscape file version = " + version);
+            }
+            HeightWidth width;
+            try {
+                width = HeightWidth.fromBytes(header.get());
+            } catch (IllegalArgumentException e) {
+                throw new IncorrectLandscapeFileException(e.getMessage());
+            }
+            header.getShort();
+            long length = header.getLong();
+
+            if (length < 0 || length > (channel.size() - HEADER_LENGTH) / width.getBytes()) {
+                throw new IncorrectLandscapeFileException("Landscape file is truncated, expected " + length + " columns: " + file);
+            }
+
+            int columnsPerSegment = segmentBytes / width.getBytes();
+            int segmentCount = (int) ((length + columnsPerSegment - 1) / columnsPerSegment);
+            ByteBuffer[] segments = new ByteBuffer[segmentCount];
+            for (int segment = 0; segment < segmentCount; segment++) {
+                long firstColumn = (long) segment * columnsPerSegment;
+                long columns = Math.min(columnsPerSegment, length - firstColumn);
+                segments[segment] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + firstColumn * width.getBytes(), columns * width.getBytes())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedLandscape(width, length, columnsPerSegment, segments);
+        }
+    }
+
+
+
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.anmo.world_generator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only landscape backed by memory-mapped segments of a landscape file.
+ */
+public final class MappedLandscape implements Landscape {
+    private final HeightWidth mHeightWidth;
+    private final long mLength;
+    private final int mColumnsPerSegment;
+    private final ByteBuffer[] mSegments;
+
+    MappedLandscape(HeightWidth heightWidth, long length, int columnsPerSegment, ByteBuffer[] segments) {
+        mHeightWidth = heightWidth;
+        mLength = length;
+        mColumnsPerSegment = columnsPerSegment;
+        mSegments = segments;
+    }
+
+    @Override
+    public HeightWidth getHeightWidth() {
+        return mHeightWidth;
+    }
+
+    @Override
+    public long getLength() {
+        return mLength;
+    }
+
+    @Override
+    public int getColumnsPerSegment() {
+        return mColumnsPerSegment;
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return mSegments.length;
+    }
+
+    @Override
+    public int getSegmentLength(int segment) {
+        return mSegments[segment].capacity() / mHeightWidth.getBytes();
+    }
+
+    /**
+     * Mapped segments are unmapped by the GC, so the reader only guards against use after it is closed.
+     */
+    @Override
+    public Reader read() {
+        return new Reader(null, mHeightWidth, mColumnsPerSegment, mSegments);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.anmo.world_generator;
+
+/**
+ * Landscape stored in the narrowest primitive array that holds all of its heights.
+ * Byte and short heights are unsigned.
+ */
+public final class NarrowWorld {
+    private final HeightWidth mHeightWidth;
+    private final byte[] mBytes;
+    private final short[] mShorts;
+    private final int[] mInts;
+
+    private NarrowWorld(HeightWidth heightWidth, byte[] bytes, short[] shorts, int[] ints) {
+        mHeightWidth = heightWidth;
+        mBytes = bytes;
+        mShorts = shorts;
+        mInts = ints;
+    }
+
+    public static NarrowWorld of(byte[] heights) {
+        return new NarrowWorld(HeightWidth.BYTE, heights, null, null);
+    }
+
+    public static NarrowWorld of(short[] heights) {
+        return new NarrowWorld(HeightWidth.SHORT, null, heights, null);
+    }
+
+    public static NarrowWorld of(int[] heights) {
+        return new NarrowWorld(HeightWidth.INT, null, null, heights);
+    }
+
+    /**
+     * Copies the heights into the narrowest array they fit in.
+     */
+    public static NarrowWorld narrow(int[] heights) {
+        int maxHeight = 0;
+        for (int height : heights) {
+            if (height < 0) {
+                return of(heights.clone());
+            }
+            maxHeight = Math.max(maxHeight, height);
+        }
+
+        switch (HeightWidth.narrowestFor(maxHeight)) {
+            case BYTE -> {
+                byte[] bytes = new byte[heights.length];
+                for (int i = 0; i < heights.length; i++) {
+                    bytes[i] = (byte) heights[i];
+                }
+                return of(bytes);
+            }
+            case SHORT -> {
+                short[] shorts = new short[heights.length];
+                for (int i = 0; i < heights.length; i++) {
+                    shorts[i] = (short) heights[i];
+                }
+                return of(shorts);
+            }
+            default -> {
+                return of(heights.clone());
+            }
+        }
+    }
+
+    public HeightWidth getHeightWidth() {
+        return mHeightWidth;
+    }
+
+    public int getLength() {
+        return switch (mHeightWidth) {
+            case BYTE -> mBytes.length;
+            case SHORT -> mShorts.length;
+            case INT -> mInts.length;
+        };
+    }
+
+    public int heightAt(int index) {
+        return switch (mHeightWidth) {
+            case BYTE -> mBytes[index] & 0xFF;
+            case SHORT -> mShorts[index] & 0xFFFF;
+            case INT -> mInts[index];
+        };
+    }
+
+    public byte[] getBytes() {
+        checkHeightWidth(HeightWidth.BYTE);
+        return mBytes;
+    }
+
+    public short[] getShorts() {
+        checkHeightWidth(HeightWidth.SHORT);
+        return mShorts;
+    }
+
+    public int[] getInts() {
+        checkHeightWidth(HeightWidth.INT);
+        return mInts;
+    }
+
+    public int[] toIntArray() {
+        int[] heights = new int[getLength()];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = heightAt(i);
+        }
+        return heights;
+    }
+
+
+
+
+    private void checkHeightWidth(HeightWidth heightWidth) {
+        if (mHeightWidth != heightWidth) {
+            throw new IllegalStateException("World is stored as " + mHeightWidth + ", not " + heightWidth);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ru.anmo.world_generator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writable landscape in direct memory, allocated by a {@link LandscapeArena} and valid until the arena is closed.
+ * Reads and writes hold the arena, so it can't be closed under them.
+ * Segments are native-ordered direct buffers, so the landscape never shows up in the Java heap or in GC pauses.
+ */
+public final class OffHeapLandscape implements Landscape {
+    private final LandscapeArena mArena;
+    private final HeightWidth mHeightWidth;
+    private final long mLength;
+    private final int mColumnsPerSegment;
+    private final ByteBuffer[] mSegments;
+
+    OffHeapLandscape(LandscapeArena arena, HeightWidth heightWidth, long length, int columnsPerSegment, ByteBuffer[] segments) {
+        mArena = arena;
+        mHeightWidth = heightWidth;
+        mLength = length;
+        mColumnsPerSegment = columnsPerSegment;
+        mSegments = segments;
+    }
+
+    @Override
+    public HeightWidth getHeightWidth() {
+        return mHeightWidth;
+    }
+
+    @Override
+    public long getLength() {
+        return mLength;
+    }
+
+    @Override
+    public int getColumnsPerSegment() {
+        return mColumnsPerSegment;
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return mSegments.length;
+    }
+
+    @Override
+    public int getSegmentLength(int segment) {
+        return mSegments[segment].capacity() / mHeightWidth.getBytes();
+    }
+
+    /**
+     * @throws IllegalStateException if the arena of the landscape is closed
+     */
+    @Override
+    public Reader read() {
+        mArena.acquire();
+        return new Reader(mArena, mHeightWidth, mColumnsPerSegment, mSegments);
+    }
+
+    public LandscapeArena getArena() {
+        return mArena;
+    }
+
+    public void setHeight(long index, int height) {
+        checkFits(height);
+        mArena.acquire();
+        try {
+            writeHeight(index, height);
+        } finally {
+            mArena.release();
+        }
+    }
+
+    /**
+     * Copies {@code heights} into the landscape starting at column {@code startIndex}.
+     */
+    public void setHeights(long startIndex, int[] heights) {
+        mArena.acquire();
+        try {
+            for (int i = 0; i < heights.length; i++) {
+                checkFits(heights[i]);
+                writeHeight(startIndex + i, heights[i]);
+            }
+        } finally {
+            mArena.release();
+        }
+    }
+
+    /**
+     * Writes a height that fits, while the caller holds the arena.
+     */
+    void writeHeight(long index, int height) {
+        ByteBuffer segment = mSegments[(int) (index / mColumnsPerSegment)];
+        int indexInSegment = (int) (index % mColumnsPerSegment);
+        switch (mHeightWidth) {
+            case BYTE -> segment.put(indexInSegment, (byte) height);
+            case SHORT -> segment.putShort(indexInSegment << 1, (short) height);
+            case INT -> segment.putInt(indexInSegment << 2, height);
+        }
+    }
+
+
+
+    private void checkFits(int height) {
+        if (!mHeightWidth.fits(height)) {
+            throw new IllegalArgumentException("Height " + height + " doesn't fit into " + mHeightWidth);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.anmo.world_generator;
+
+import java.util.Arrays;
+
+/**
+ * Landscape stored as runs of equal columns: run {@code i} is {@code getRunLength(i)} columns of {@code getHeight(i)}.
+ * Run lengths are {@code long}, so a landscape may be far wider than any array while holding few runs.
+ * Neighbouring runs may share a height.
+ */
+public final class RunLengthLandscape {
+    private final int[] mHeights;
+    private final long[] mRunLengths;
+    private final long mLength;
+
+    private RunLengthLandscape(int[] heights, long[] runLengths, long length) {
+        mHeights = heights;
+        mRunLengths = runLengths;
+        mLength = length;
+    }
+
+    /**
+     * @param heights    height of every run
+     * @param runLengths number of columns in every run, all positive
+     */
+    public static RunLengthLandscape of(int[] heights, long[] runLengths) {
+        if (heights.length != runLengths.length) {
+            throw new IllegalArgumentException("Got " + heights.length + " run heights but " + runLengths.length + " run lengths");
+        }
+        long length = 0;
+        for (int run = 0; run < runLengths.length; run++) {
+            if (runLengths[run] <= 0) {
+                throw new IllegalArgumentException("Incorrect length = " + runLengths[run] + " of run " + run + ", should be positive");
+            }
+            length = Math.addExact(length, runLengths[run]);
+        }
+        return new RunLengthLandscape(heights.clone(), runLengths.clone(), length);
+    }
+
+    /**
+     * Joins equal neighbouring columns of {@code landscape} into runs.
+     */
+    public static RunLengthLandscape encode(int[] landscape) {
+        int[] heights = new int[16];
+        long[] runLengths = new long[16];
+        int runCount = 0;
+        for (int i = 0; i < landscape.length; i++) {
+            if (runCount > 0 && heights[runCount - 1] == landscape[i]) {
+                runLengths[runCount - 1]++;
+                continue;
+            }
+            if (runCount == heights.length) {
+                heights = Arrays.copyOf(heights, 2 * runCount);
+                runLengths = Arrays.copyOf(runLengths, 2 * runCount);
+            }
+            heights[runCount] = landscape[i];
+            runLengths[runCount] = 1;
+            runCount++;
+        }
+        return new RunLengthLandscape(Arrays.copyOf(heights, runCount), Arrays.copyOf(runLengths, runCount), landscape.length);
+    }
+
+    /**
+     * Number of columns.
+     */
+    public long getLength() {
+        return mLength;
+    }
+
+    public int getRunCount() {
+        return mHeights.length;
+    }
+
+    public int getHeight(int run) {
+        return mHeights[run];
+    }
+
+    public long getRunLength(int run) {
+        return mRunLengths[run];
+    }
+
+    /**
+     * Expands the runs into one height per column.
+     */
+    public int[] toIntArray() {
+        if (mLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Landscape of " + mLength + " columns doesn't fit into an array");
+        }
+        int[] landscape = new int[(int) mLength];
+        int start = 0;
+        for (int run = 0; run < mHeights.length; run++) {
+            Arrays.fill(landscape, start, start + (int) mRunLengths[run], mHeights[run]);
+            start += (int) mRunLengths[run];
+        }
+        return landscape;
+    }
+}
@@ -3,6 +3,9 @@ package ru.anmo.world_generator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 
@@ -12,10 +15,19 @@ public class WorldGenerator implements IWorldGenerator{
     public static final int MAX_LENGTH = 32000;
     public static final int MIN_HEIGHT = 0;
     public static final int MAX_HEIGHT = 32000;
+    public static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    public static final int PLATEAU_PERIOD = 16;
+    public static final int SAWTOOTH_PERIOD = 64;
+    public static final int SEEDED_CHUNK_LENGTH = 1 << 16;
+    public static final long MAX_OFF_HEAP_LENGTH = 1L << 40;
+    private static final int CHUNKS_PER_ROUND = 1 << 12;
 
     @Autowired
     private RandomGenerator randomizer;
 
+    @Autowired
+    private ForkJoinPool executor;
+
     @Override
     public int[] generateWorld(int... manualHeights) {
         int[] generatedWorld = new int[manualHeights.length];
@@ -25,12 +37,7 @@ public class WorldGenerator implements IWorldGenerator{
 
     @Override
     public int[] generateWorld(int length, int maxHeight) throws IncorrectWorldParametersException {
-        if (length < 0 || length > MAX_LENGTH) {
-            throw new IncorrectWorldParametersException("Incorrect length = " + length + ", should be between " + MIN_LENGTH + " and " + MAX_LENGTH);
-        }
-        if (maxHeight < 0 || maxHeight > MAX_HEIGHT) {
-            throw new IncorrectWorldParametersException("Incorrect maxHeight = " + maxHeight + ", should be between " + MIN_HEIGHT + " and " + MAX_HEIGHT);
-        }
+        checkWorldParameters(length, maxHeight, HeightWidth.INT);
 
         int[] generatedWorld = new int[length];
         IntStream.range(0, length).forEach(i -> {
@@ -54,9 +61,203 @@ public class WorldGenerator implements IWorldGenerator{
         return generatedWorld;
     }
 
+    @Override
+    public int[] generateWorld(int length, int maxHeight, long seed) throws IncorrectWorldParametersException {
+        checkWorldParameters(length, maxHeight, HeightWidth.INT, MAX_ARRAY_LENGTH);
+
+        int[] generatedWorld = new int[length];
+        int chunkCount = (int) (((long) length + SEEDED_CHUNK_LENGTH - 1) / SEEDED_CHUNK_LENGTH);
+
+        // Chunk generators are split off in chunk order, so heights do not depend on which thread fills which chunk
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            chunkRandoms[chunk] = random.split();
+        }
+
+        executor.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            SplittableRandom chunkRandom = chunkRandoms[chunk];
+            int end = (int) Math.min((long) (chunk + 1) * SEEDED_CHUNK_LENGTH, length);
+            for (int i = chunk * SEEDED_CHUNK_LENGTH; i < end; i++) {
+                generatedWorld[i] = chunkRandom.nextInt(MIN_HEIGHT, maxHeight + 1);
+            }
+        })).join();
+
+        return generatedWorld;
+    }
+
+    /**
+     * Row-major 2D map of {@code width x rows} random heights, generated like {@link #generateWorld(int, int, long)}.
+     */
+    @Override
+    public int[] generateHeightMap(int width, int rows, int maxHeight, long seed) throws IncorrectWorldParametersException {
+        if (width < 0 || rows < 0 || (long) width * rows > MAX_ARRAY_LENGTH) {
+            throw new IncorrectWorldParametersException("Incorrect size = " + width + " x " + rows + ", should hold at most " + MAX_ARRAY_LENGTH + " columns");
+        }
+        return generateWorld(width * rows, maxHeight, seed);
+    }
+
+    /**
+     * Random landscape in direct memory of {@code arena}, stored in the narrowest {@link HeightWidth} for {@code maxHeight}.
+     * Heights are the same as {@link #generateWorld(int, int, long)} gives for the same seed,
+     * and the chunk generators are split a round at a time, so nothing on the heap grows with the length.
+     */
+    @Override
+    public OffHeapLandscape generateWorld(LandscapeArena arena, long length, int maxHeight, long seed) throws IncorrectWorldParametersException {
+        if (length < 0 || length > MAX_OFF_HEAP_LENGTH) {
+            throw new IncorrectWorldParametersException("Incorrect length = " + length + ", should be between " + MIN_LENGTH + " and " + MAX_OFF_HEAP_LENGTH);
+        }
+        checkWorldParameters(0, maxHeight, HeightWidth.INT);
+
+        OffHeapLandscape generatedWorld = arena.allocate(length, HeightWidth.narrowestFor(maxHeight));
+        arena.acquire();
+        try {
+            fillWorld(generatedWorld, length, maxHeight, seed);
+        } finally {
+            arena.release();
+        }
+        return generatedWorld;
+    }
+
+    /**
+     * Writes the seeded heights into {@code generatedWorld}, whose arena the caller holds.
+     */
+    private void fillWorld(OffHeapLandscape generatedWorld, long length, int maxHeight, long seed) {
+        long chunkCount = (length + SEEDED_CHUNK_LENGTH - 1) / SEEDED_CHUNK_LENGTH;
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom[] chunkRandoms = new SplittableRandom[(int) Math.min(chunkCount, CHUNKS_PER_ROUND)];
+
+        for (long firstChunk = 0; firstChunk < chunkCount; firstChunk += chunkRandoms.length) {
+            final long roundStart = firstChunk;
+            int roundChunks = (int) Math.min(chunkRandoms.length, chunkCount - firstChunk);
+            for (int chunk = 0; chunk < roundChunks; chunk++) {
+                chunkRandoms[chunk] = random.split();
+            }
+
+            executor.submit(() -> IntStream.range(0, roundChunks).parallel().forEach(chunk -> {
+                SplittableRandom chunkRandom = chunkRandoms[chunk];
+                long start = (roundStart + chunk) * SEEDED_CHUNK_LENGTH;
+                long end = Math.min(start + SEEDED_CHUNK_LENGTH, length);
+                for (long i = start; i < end; i++) {
+                    generatedWorld.writeHeight(i, chunkRandom.nextInt(MIN_HEIGHT, maxHeight + 1));
+                }
+            })).join();
+        }
+    }
+
+    /**
+     * Random runs of 1 to {@code maxRunLength} columns, each of a random height, {@code length} columns in total.
+     */
+    @Override
+    public RunLengthLandscape generateRunLengthWorld(long length, int maxHeight, long maxRunLength, long seed) throws IncorrectWorldParametersException {
+        if (length < 0) {
+            throw new IncorrectWorldParametersException("Incorrect length = " + length + ", should not be negative");
+        }
+        if (maxRunLength < 1 || length / maxRunLength > MAX_ARRAY_LENGTH / 4) {
+            throw new IncorrectWorldParametersException("Incorrect maxRunLength = " + maxRunLength + ", too many runs expected for length = " + length);
+        }
+        checkWorldParameters(0, maxHeight, HeightWidth.INT);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] heights = new int[16];
+        long[] runLengths = new long[16];
+        int runCount = 0;
+        for (long columns = 0; columns < length; runCount++) {
+            if (runCount == heights.length) {
+                heights = Arrays.copyOf(heights, (int) Math.min(2L * runCount, MAX_ARRAY_LENGTH));
+                runLengths = Arrays.copyOf(runLengths, heights.length);
+            }
+            heights[runCount] = random.nextInt(MIN_HEIGHT, maxHeight + 1);
+            runLengths[runCount] = Math.min(random.nextLong(maxRunLength) + 1, length - columns);
+            columns += runLengths[runCount];
+        }
+        return RunLengthLandscape.of(Arrays.copyOf(heights, runCount), Arrays.copyOf(runLengths, runCount));
+    }
+
+    @Override
+    public int[] generateWorld(WorldShape shape, int length, int maxHeight, long seed) throws IncorrectWorldParametersException {
+        checkWorldParameters(length, maxHeight, HeightWidth.INT, MAX_ARRAY_LENGTH);
+        if (shape == WorldShape.RANDOM) {
+            return generateWorld(length, maxHeight, seed);
+        }
+
+        int[] generatedWorld = new int[length];
+        long lastIndex = Math.max(1, length - 1);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        switch (shape) {
+            case RAMP -> {
+                for (int i = 0; i < length; i++) {
+                    generatedWorld[i] = (int) (i * (long) maxHeight / lastIndex);
+                }
+            }
+            case VALLEY -> {
+                for (int i = 0; i < length; i++) {
+                    generatedWorld[i] = (int) (Math.abs(2L * i - lastIndex) * maxHeight / lastIndex);
+                }
+            }
+            case PLATEAU -> {
+                for (int i = 0; i < length; i++) {
+                    generatedWorld[i] = i % PLATEAU_PERIOD == 0 ? maxHeight : random.nextInt(MIN_HEIGHT, maxHeight / 2 + 1);
+                }
+            }
+            case SAWTOOTH -> {
+                for (int i = 0; i < length; i++) {
+                    generatedWorld[i] = (i % SAWTOOTH_PERIOD) * maxHeight / (SAWTOOTH_PERIOD - 1);
+                }
+            }
+        }
+        return generatedWorld;
+    }
+
+    @Override
+    public short[] generateShortWorld(int length, int maxHeight) throws IncorrectWorldParametersException {
+        checkWorldParameters(length, maxHeight, HeightWidth.SHORT);
+
+        short[] generatedWorld = new short[length];
+        for (int i = 0; i < length; i++) {
+            generatedWorld[i] = (short) randomizer.nextInt(MIN_HEIGHT, maxHeight + 1);
+        }
+        return generatedWorld;
+    }
+
+    @Override
+    public byte[] generateByteWorld(int length, int maxHeight) throws IncorrectWorldParametersException {
+        checkWorldParameters(length, maxHeight, HeightWidth.BYTE);
 
+        byte[] generatedWorld = new byte[length];
+        for (int i = 0; i < length; i++) {
+            generatedWorld[i] = (byte) randomizer.nextInt(MIN_HEIGHT, maxHeight + 1);
+        }
+        return generatedWorld;
+    }
+
+    @Override
+    public NarrowWorld generateNarrowWorld(int length, int maxHeight) throws IncorrectWorldParametersException {
+        return switch (HeightWidth.narrowestFor(maxHeight)) {
+            case BYTE -> NarrowWorld.of(generateByteWorld(length, maxHeight));
+            case SHORT -> NarrowWorld.of(generateShortWorld(length, maxHeight));
+            case INT -> NarrowWorld.of(generateWorld(length, maxHeight));
+        };
+    }
 
 
+
+
+    private static void checkWorldParameters(int length, int maxHeight, HeightWidth width) throws IncorrectWorldParametersException {
+        checkWorldParameters(length, maxHeight, width, MAX_LENGTH);
+    }
+
+    private static void checkWorldParameters(int length, int maxHeight, HeightWidth width, int maxLength) throws IncorrectWorldParametersException {
+        int maxAllowedHeight = Math.min(MAX_HEIGHT, width.getMaxHeight());
+        if (length < 0 || length > maxLength) {
+            throw new IncorrectWorldParametersException("Incorrect length = " + length + ", should be between " + MIN_LENGTH + " and " + maxLength);
+        }
+        if (maxHeight < 0 || maxHeight > maxAllowedHeight) {
+            throw new IncorrectWorldParametersException("Incorrect maxHeight = " + maxHeight + ", should be between " + MIN_HEIGHT + " and " + maxAllowedHeight);
+        }
+    }
+
     private void debugPrintWorld(int[] generatedWorld, int length, int maxHeight) {
         System.out.println();
         System.out.println("==== Generated World (length = " + length + ", maxHeight = " + maxHeight + ") ====");
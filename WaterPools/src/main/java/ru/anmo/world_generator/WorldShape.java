@@ -0,0 +1,17 @@
+package ru.anmo.world_generator;
+
+/**
+ * Landscape profiles produced by {@link IWorldGenerator#generateWorld(WorldShape, int, int, long)}.
+ */
+public enum WorldShape {
+    /** Independent uniform heights. */
+    RANDOM,
+    /** Heights growing from 0 to maxHeight, always dry. */
+    RAMP,
+    /** Heights falling to 0 in the middle and growing back to maxHeight, one deep pool. */
+    VALLEY,
+    /** Peaks of maxHeight every {@link WorldGenerator#PLATEAU_PERIOD} columns with random lower ground between them. */
+    PLATEAU,
+    /** Repeated ramps of {@link WorldGenerator#SAWTOOTH_PERIOD} columns, one pool per tooth. */
+    SAWTOOTH
+}
@@ -0,0 +1,151 @@
+package ru.anmo.batch_runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.anmo.waterpool_solver.IWaterPoolSolver;
+import ru.anmo.waterpool_solver.SequentialWaterPoolSolver;
+import ru.anmo.world_generator.HeightWidth;
+import ru.anmo.world_generator.LandscapeFileStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void checkTextInput() throws Exception {
+        String input = "2 3 3 1 2 1 0 5 1 3 2 0 2 0 1 5 2 1 1 2\r\n"
+                + "\n"
+                + "5,1,5\n"
+                + "4\t1\n"
+                + "3 0 0 3";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BatchRunner.Report report = new BatchRunner(BatchRunner.Format.TEXT, 2, 1).run(List.of(text(input)), output);
+
+        assertEquals("36\n4\n0\n6\n", output.toString(StandardCharsets.US_ASCII));
+        assertEquals(4, report.getLandscapeCount());
+        assertEquals(29, report.getColumnCount());
+    }
+
+    @Test
+    void checkOrderAcrossManyBatches() throws Exception {
+        SplittableRandom random = new SplittableRandom(20);
+        int landscapeCount = 3 * BatchRunner.BATCH_LANDSCAPES + 5;
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < landscapeCount; i++) {
+            int[] landscape = random.ints(random.nextInt(1, 50), 0, 100).toArray();
+            input.append(Arrays.stream(landscape).mapToObj(Integer::toString).collect(Collectors.joining(" "))).append('\n');
+            expected.append(waterAmount(landscape)).append('\n');
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BatchRunner.Report report = new BatchRunner(BatchRunner.Format.TEXT, 3, 1).run(List.of(text(input.toString())), output);
+
+        assertEquals(expected.toString(), output.toString(StandardCharsets.US_ASCII));
+        assertEquals(landscapeCount, report.getLandscapeCount());
+        assertTrue(report.getColumnsPerSecond() > 0);
+    }
+
+    @Test
+    void checkBinaryInput() throws Exception {
+        LandscapeFileStorage landscapeStorage = new LandscapeFileStorage();
+        int[] first = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        int[] second = new SplittableRandom(1).ints(200_000, 0, 32001).toArray();
+        Path firstFile = tempDir.resolve("first.wpl");
+        Path secondFile = tempDir.resolve("second.wpl");
+        landscapeStorage.write(firstFile, first, HeightWidth.BYTE);
+        landscapeStorage.write(secondFile, second);
+
+        byte[] stream = concat(Files.readAllBytes(firstFile), Files.readAllBytes(secondFile));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BatchRunner(BatchRunner.Format.BINARY, 2, 2).run(List.of(new ByteArrayInputStream(stream), Files.newInputStream(firstFile)), output);
+
+        assertEquals("36\n" + waterAmount(second) + "\n36\n", output.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void checkBrokenInput() {
+        BatchRunner runner = new BatchRunner(BatchRunner.Format.TEXT, 1, 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThrows(IOException.class, () -> runner.run(List.of(text("5 1 5\n5 x 5\n")), output));
+        assertThrows(IOException.class, () -> runner.run(List.of(text("99999999999\n")), output));
+
+        BatchRunner binaryRunner = new BatchRunner(BatchRunner.Format.BINARY, 1, 1);
+        assertThrows(IOException.class, () -> binaryRunner.run(List.of(text("not a landscape file")), output));
+    }
+
+    @Test
+    void checkSolveFailure() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3 * BatchRunner.BATCH_LANDSCAPES; i++) {
+            input.append(i == BatchRunner.BATCH_LANDSCAPES + 1 ? "7 0 7\n" : "5 1 5\n");
+        }
+        IWaterPoolSolver failingSolver = landscape -> {
+            if (landscape[0] == 7) {
+                throw new IllegalStateException("Broken solver");
+            }
+            return waterAmount(landscape);
+        };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BatchRunner runner = new BatchRunner(BatchRunner.Format.TEXT, 2, 1, failingSolver);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> runner.run(List.of(text(input.toString())), output));
+
+        assertEquals("Broken solver", e.getMessage());
+        assertEquals("4\n".repeat(BatchRunner.BATCH_LANDSCAPES), output.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void checkCommandLine() throws IOException {
+        Path inputFile = tempDir.resolve("input.txt");
+        Path outputFile = tempDir.resolve("output.txt");
+        Files.writeString(inputFile, "5 1 5\n");
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+        int exitCode = BatchRunner.run(new String[] { "--threads", "2", "--output", outputFile.toString(), inputFile.toString(), "-" },
+                text("3 0 3\n"), stdout, new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        assertEquals(0, exitCode);
+        assertEquals("4\n3\n", Files.readString(outputFile));
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("2 landscapes, 6 columns"));
+
+        exitCode = BatchRunner.run(new String[] { "--format", "xml" }, text(""), stdout, new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        assertEquals(BatchRunner.EXIT_USAGE, exitCode);
+        exitCode = BatchRunner.run(new String[] { tempDir.resolve("missing.txt").toString() }, text(""), stdout, new PrintStream(stderr, true, StandardCharsets.UTF_8));
+        assertEquals(BatchRunner.EXIT_FAILURE, exitCode);
+        assertEquals(0, stdout.size());
+    }
+
+
+
+    private static InputStream text(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+
+    private static long waterAmount(int[] landscape) {
+        return new SequentialWaterPoolSolver().calculateWaterAmount(landscape);
+    }
+}
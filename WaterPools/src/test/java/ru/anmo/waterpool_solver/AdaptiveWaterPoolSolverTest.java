@@ -0,0 +1,79 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private AdaptiveWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.executor.parallelism", "4");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(AdaptiveWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.executor.parallelism");
+        System.clearProperty("waterpools.adaptive.calibrate");
+        System.clearProperty("waterpools.solver.engine");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkEngineSelection() {
+        int[] smallWorld = new SplittableRandom(1).ints(300, 0, 1000).toArray();
+        int[] randomWorld = new SplittableRandom(1).ints(AdaptiveWaterPoolSolver.DEFAULT_PARALLEL_THRESHOLD / 2, 0, 1000).toArray();
+        int[] valley = IntStream.range(0, randomWorld.length).map(i -> Math.abs(randomWorld.length / 2 - i)).toArray();
+        int[] bigWorld = new SplittableRandom(1).ints(AdaptiveWaterPoolSolver.DEFAULT_PARALLEL_THRESHOLD, 0, 1000).toArray();
+
+        assertEquals(SolverEngine.SEQUENTIAL, waterPoolSolver.selectEngine(smallWorld));
+        assertEquals(VectorWaterPoolSolver.isVectorApiAvailable() ? SolverEngine.SIMD : SolverEngine.SEQUENTIAL, waterPoolSolver.selectEngine(randomWorld));
+        assertEquals(SolverEngine.SEQUENTIAL, waterPoolSolver.selectEngine(valley));
+        assertEquals(SolverEngine.PARALLEL_PREFIX, waterPoolSolver.selectEngine(bigWorld));
+
+        for (int[] world : new int[][] { smallWorld, randomWorld, valley, bigWorld }) {
+            assertEquals(SequentialWaterPoolSolver.solve(world, 0, world.length), waterPoolSolver.calculateWaterAmount(world));
+        }
+    }
+
+    @Test
+    void checkIrregularitySampling() {
+        assertTrue(AdaptiveWaterPoolSolver.isIrregular(new SplittableRandom(2).ints(10_000, 0, 100).toArray()));
+        assertFalse(AdaptiveWaterPoolSolver.isIrregular(IntStream.range(0, 10_000).toArray()));
+        assertFalse(AdaptiveWaterPoolSolver.isIrregular(new int[10_000]));
+        assertFalse(AdaptiveWaterPoolSolver.isIrregular(new int[] { 1, 3, 2 }));
+    }
+
+    @Test
+    void checkCalibratedThresholds() {
+        context.close();
+        System.setProperty("waterpools.adaptive.calibrate", "true");
+        System.setProperty("waterpools.solver.engine", "ADAPTIVE");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(AdaptiveWaterPoolSolver.class);
+
+        assertTrue(waterPoolSolver.getParallelThreshold() > 0);
+        assertTrue(waterPoolSolver.getSimdThreshold() > 0);
+        assertSame(waterPoolSolver, context.getBean(IWaterPoolSolver.class));
+
+        int[] generatedWorld = new SplittableRandom(3).ints(100_000, 0, 32001).toArray();
+        assertEquals(SequentialWaterPoolSolver.solve(generatedWorld, 0, generatedWorld.length), waterPoolSolver.calculateWaterAmount(generatedWorld));
+    }
+}
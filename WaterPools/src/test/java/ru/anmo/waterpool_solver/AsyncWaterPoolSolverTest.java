@@ -0,0 +1,65 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private AsyncWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.executor.parallelism", "1");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(AsyncWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.executor.parallelism");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() throws Exception {
+        ManualWorlds.assertSolvedBy(world -> waterPoolSolver.calculateWaterAmountAsync(world).join());
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+        assertSame(waterPoolSolver, context.getBean(IAsyncWaterPoolSolver.class));
+    }
+
+    @Test
+    void checkManyConcurrentSolvesOnOneThread() throws Exception {
+        SplittableRandom random = new SplittableRandom(24);
+        int[][] landscapes = new int[40][];
+        for (int i = 0; i < landscapes.length; i++) {
+            landscapes[i] = random.ints(random.nextInt(1, 200_000), 0, i % 2 == 0 ? 32001 : 50).toArray();
+        }
+        landscapes[0] = IntStream.range(0, 50_000).map(i -> i < 25_000 ? i : 50_000 - i).toArray();
+
+        long[] waterAmounts = waterPoolSolver.calculateWaterAmountsAsync(landscapes).get(1, TimeUnit.MINUTES);
+        for (int i = 0; i < landscapes.length; i++) {
+            assertEquals(SequentialWaterPoolSolver.solve(landscapes[i], 0, landscapes[i].length), waterAmounts[i], "landscape " + i);
+        }
+    }
+
+    @Test
+    void checkFailuresGoThroughFuture() {
+        CompletableFuture<Long> failed = waterPoolSolver.calculateWaterAmountAsync((int[]) null);
+        assertTrue(failed.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(NullPointerException.class, e.getCause());
+        assertThrows(NullPointerException.class, () -> waterPoolSolver.calculateWaterAmount((int[]) null));
+    }
+}
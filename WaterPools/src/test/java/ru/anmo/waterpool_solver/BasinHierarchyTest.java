@@ -0,0 +1,213 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.IWorldGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasinHierarchyTest {
+
+    private static final double EPSILON = 1e-6;
+
+    private AnnotationConfigApplicationContext context = null;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldPours() {
+        int[] customWorld = { 3, 0, 2, 0, 4 };
+        BasinHierarchy hierarchy = new BasinHierarchy(customWorld);
+
+        FloodResult result = hierarchy.pour(1, 1);
+        assertEquals(1, result.getWaterDepth(1), EPSILON);
+        assertEquals(0, result.getWaterDepth(3), EPSILON);
+        assertEquals(0, result.getOverflowColumns().length);
+
+        result = hierarchy.pour(1, 3);
+        assertEquals(2, result.getWaterDepth(1), EPSILON);
+        assertEquals(1, result.getWaterDepth(3), EPSILON);
+        assertArrayEquals(new int[] { 2 }, result.getOverflowColumns());
+
+        result = hierarchy.pour(3, 6);
+        assertEquals(1, result.getSurfaces().size());
+        assertEquals(2 + 2.0 / 3, result.getSurfaces().get(0).getLevel(), EPSILON);
+        assertEquals(6, result.getRetainedVolume(), EPSILON);
+
+        result = hierarchy.pour(1, 100);
+        assertEquals(7, result.getRetainedVolume(), EPSILON);
+        assertEquals(93, result.getDrainedLeft(), EPSILON);
+        assertEquals(0, result.getDrainedRight(), EPSILON);
+        assertArrayEquals(new int[] { 0 }, result.getOverflowColumns());
+    }
+
+    @Test
+    void checkPoursOnSlopesAndPeaks() {
+        BasinHierarchy hierarchy = new BasinHierarchy(new int[] { 1, 2, 3 });
+        assertEquals(5, hierarchy.pour(2, 5).getDrainedLeft(), EPSILON);
+        assertEquals(5, hierarchy.pour(0, 5).getDrainedLeft(), EPSILON);
+
+        hierarchy = new BasinHierarchy(new int[] { 4, 1, 5, 2, 6 });
+        FloodResult result = hierarchy.pour(2, 10);
+        assertEquals(3, result.getWaterDepth(1), EPSILON);
+        assertEquals(0, result.getWaterDepth(3), EPSILON);
+        assertEquals(7, result.getDrainedLeft(), EPSILON);
+
+        result = new BasinHierarchy(new int[] { 7 }).pour(0, 2);
+        assertEquals(2, result.getDrainedLeft(), EPSILON);
+        assertTrue(result.getSurfaces().isEmpty());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> new BasinHierarchy(new int[] { 1, 2 }).pour(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BasinHierarchy(new int[] { 1, 2 }).pour(0, -1));
+    }
+
+    @Test
+    void checkUnlimitedPourFillsWalledWorld() {
+        SplittableRandom random = new SplittableRandom(23);
+        int[] landscape = random.ints(500, 0, 1000).toArray();
+        landscape[0] = 1000;
+        landscape[landscape.length - 1] = 1000;
+        long waterAmount = new SequentialWaterPoolSolver().calculateWaterAmount(landscape);
+        BasinHierarchy hierarchy = new BasinHierarchy(landscape);
+
+        for (int position = 1; position < landscape.length - 1; position += 7) {
+            FloodResult result = hierarchy.pour(position, 1e9);
+            assertEquals(waterAmount, result.getRetainedVolume(), EPSILON);
+            assertEquals(1e9 - waterAmount, result.getDrainedLeft() + result.getDrainedRight(), EPSILON);
+        }
+    }
+
+    @Test
+    void checkRandomPoursAreStable() throws IWorldGenerator.IncorrectWorldParametersException {
+        SplittableRandom random = new SplittableRandom(24);
+        int[] landscape = context.getBean(IWorldGenerator.class).generateWorld(2000, 300, 24);
+        BasinHierarchy hierarchy = new BasinHierarchy(landscape);
+
+        for (int i = 0; i < 300; i++) {
+            int position = random.nextInt(landscape.length);
+            double volume = random.nextDouble(0, 20000);
+            FloodResult smaller = hierarchy.pour(position, volume);
+            FloodResult larger = hierarchy.pour(position, 2 * volume);
+            checkStable(landscape, smaller, volume);
+            checkStable(landscape, larger, 2 * volume);
+
+            for (int column = 0; column < landscape.length; column++) {
+                assertTrue(smaller.getWaterDepth(column) <= larger.getWaterDepth(column) + EPSILON, "column " + column);
+            }
+        }
+    }
+
+    @Test
+    void checkPoursMatchColumnByColumnFlow() {
+        SplittableRandom random = new SplittableRandom(25);
+        for (int i = 0; i < 3000; i++) {
+            // Distinct heights, so the water never has to choose between equal walls
+            int length = random.nextInt(1, 13);
+            int[] landscape = random.ints(0, 60).distinct().limit(length).toArray();
+            int position = random.nextInt(length);
+            double volume = random.nextInt(4) == 0 ? random.nextInt(100) : random.nextDouble(0, 300);
+
+            FloodResult result = new BasinHierarchy(landscape).pour(position, volume);
+            double[] drained = new double[2];
+            double[] surface = flow(landscape, position, volume, drained);
+            String world = Arrays.toString(landscape) + " pour(" + position + ", " + volume + ")";
+            for (int column = 0; column < length; column++) {
+                assertEquals(surface[column] - landscape[column], result.getWaterDepth(column), EPSILON * (1 + volume), world + " column " + column);
+            }
+            assertEquals(drained[0], result.getDrainedLeft(), EPSILON * (1 + volume), world);
+            assertEquals(drained[1], result.getDrainedRight(), EPSILON * (1 + volume), world);
+        }
+    }
+
+    @Test
+    void checkDeepHierarchy() {
+        int[] slope = IntStream.range(0, 1_000_000).toArray();
+        slope[0] = slope.length;
+        BasinHierarchy hierarchy = new BasinHierarchy(slope);
+
+        FloodResult result = hierarchy.pour(slope.length - 1, 10);
+        assertEquals(10, result.getRetainedVolume(), EPSILON);
+        assertEquals(Math.sqrt(20) + 0.5, result.getSurfaces().get(0).getLevel(), 0.5);
+    }
+
+
+
+    /**
+     * Reference pour that follows the water column by column: it runs down to the lower neighbour, the left one on a tie
+     * and one inside the landscape before an edge, spreads level over a flat surface, raises it up to the lower wall and
+     * runs over that wall. Returns the water surface of every column and adds what runs off the edges to {@code drained}.
+     */
+    private static double[] flow(int[] landscape, int position, double volume, double[] drained) {
+        int length = landscape.length;
+        double[] surface = Arrays.stream(landscape).asDoubleStream().toArray();
+        double water = volume;
+        int column = position;
+        while (water > 0) {
+            double level = surface[column];
+            int start = column;
+            while (start > 0 && surface[start - 1] == level) {
+                start--;
+            }
+            int end = column + 1;
+            while (end < length && surface[end] == level) {
+                end++;
+            }
+
+            boolean lowerLeft = start > 0 && surface[start - 1] < level;
+            boolean lowerRight = end < length && surface[end] < level;
+            if (lowerLeft && (!lowerRight || surface[start - 1] <= surface[end])) {
+                column = start - 1;
+            } else if (lowerRight) {
+                column = end;
+            } else if (start == 0 || end == length) {
+                drained[start == 0 ? 0 : 1] += water;
+                water = 0;
+            } else {
+                double lowerWall = Math.min(surface[start - 1], surface[end]);
+                double rise = Math.min(lowerWall - level, water / (end - start));
+                water = rise == lowerWall - level ? water - rise * (end - start) : 0;
+                Arrays.fill(surface, start, end, level + rise);
+            }
+        }
+        return surface;
+    }
+
+    /**
+     * Water is conserved, and every surface holding water stands between walls not lower than it.
+     */
+    private static void checkStable(int[] landscape, FloodResult result, double volume) {
+        assertEquals(volume, result.getRetainedVolume() + result.getDrainedLeft() + result.getDrainedRight(), EPSILON * volume);
+        double depthSum = 0;
+        for (int column = 0; column < landscape.length; column++) {
+            depthSum += result.getWaterDepth(column);
+        }
+        assertEquals(result.getRetainedVolume(), depthSum, EPSILON * Math.max(1, volume));
+
+        List<FloodResult.Surface> surfaces = result.getSurfaces();
+        for (int i = 0; i < surfaces.size(); i++) {
+            FloodResult.Surface surface = surfaces.get(i);
+            if (i > 0) {
+                assertTrue(surfaces.get(i - 1).getEndIndex() <= surface.getStartIndex());
+            }
+            assertTrue(surface.getStartIndex() > 0 && surface.getEndIndex() < landscape.length, surface.toString());
+            double lowerWall = Math.min(landscape[surface.getStartIndex() - 1], landscape[surface.getEndIndex()]);
+            assertTrue(surface.getLevel() <= lowerWall + EPSILON, surface.toString());
+        }
+    }
+}
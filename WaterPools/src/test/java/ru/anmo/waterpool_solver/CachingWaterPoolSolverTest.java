@@ -0,0 +1,159 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private CachingWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(CachingWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.cache.enabled");
+        context.close();
+    }
+
+    @Test
+    void checkRepeatedLandscapesHitTheCache() {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(customWorld));
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(customWorld.clone()));
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(customWorld));
+
+        assertEquals(2, waterPoolSolver.getHitCount());
+        assertEquals(1, waterPoolSolver.getMissCount());
+        assertEquals(1, waterPoolSolver.getCachedLandscapeCount());
+    }
+
+    @Test
+    void checkChangedLandscapeIsSolvedAgain() {
+        int[] customWorld = { 5, 1, 5 };
+        assertEquals(4, waterPoolSolver.calculateWaterAmount(customWorld));
+
+        customWorld[1] = 3;
+        assertEquals(2, waterPoolSolver.calculateWaterAmount(customWorld));
+        assertEquals(0, waterPoolSolver.getHitCount());
+        assertEquals(2, waterPoolSolver.getMissCount());
+    }
+
+    @Test
+    void checkCollisionsAreVerified() {
+        CachingWaterPoolSolver collidingSolver = new CachingWaterPoolSolver(new SequentialWaterPoolSolver(), 1 << 20, landscape -> 42);
+
+        assertEquals(4, collidingSolver.calculateWaterAmount(new int[] { 5, 1, 5 }));
+        assertEquals(2, collidingSolver.calculateWaterAmount(new int[] { 5, 3, 5 }));
+        assertEquals(2, collidingSolver.calculateWaterAmount(new int[] { 5, 3, 5 }));
+
+        assertEquals(1, collidingSolver.getCollisionCount());
+        assertEquals(1, collidingSolver.getHitCount());
+        assertEquals(1, collidingSolver.getCachedLandscapeCount());
+    }
+
+    @Test
+    void checkLeastRecentlyUsedLandscapesAreEvicted() {
+        long entryBytes = 1000L * Integer.BYTES + CachingWaterPoolSolver.ENTRY_OVERHEAD_BYTES;
+        CachingWaterPoolSolver boundedSolver = new CachingWaterPoolSolver(new SequentialWaterPoolSolver(), 2 * entryBytes);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] first = random.ints(1000, 0, 100).toArray();
+        int[] second = random.ints(1000, 0, 100).toArray();
+        int[] third = random.ints(1000, 0, 100).toArray();
+
+        boundedSolver.calculateWaterAmount(first);
+        boundedSolver.calculateWaterAmount(second);
+        boundedSolver.calculateWaterAmount(first);
+        boundedSolver.calculateWaterAmount(third);
+        assertEquals(1, boundedSolver.getEvictionCount());
+        assertEquals(2 * entryBytes, boundedSolver.getCachedBytes());
+
+        boundedSolver.calculateWaterAmount(first);
+        assertEquals(2, boundedSolver.getHitCount());
+        boundedSolver.calculateWaterAmount(second);
+        assertEquals(2, boundedSolver.getHitCount());
+
+        int[] tooBig = random.ints(1000, 0, 100).toArray();
+        CachingWaterPoolSolver tinySolver = new CachingWaterPoolSolver(new SequentialWaterPoolSolver(), 100);
+        assertEquals(SequentialWaterPoolSolver.solve(tooBig, 0, tooBig.length), tinySolver.calculateWaterAmount(tooBig));
+        assertEquals(0, tinySolver.getCachedLandscapeCount());
+    }
+
+    @Test
+    void checkBatchSendsOnlyMissesToTheEngine() {
+        List<Integer> batchLengths = new ArrayList<>();
+        CachingWaterPoolSolver batchSolver = new CachingWaterPoolSolver(new SequentialWaterPoolSolver() {
+            @Override
+            public long[] calculateWaterAmounts(int[][] landscapes) {
+                batchLengths.add(landscapes.length);
+                return super.calculateWaterAmounts(landscapes);
+            }
+        }, 1 << 20);
+
+        assertEquals(4, batchSolver.calculateWaterAmount(new int[] { 5, 1, 5 }));
+        assertArrayEquals(new long[] { 4, 2, 4, 0 }, batchSolver.calculateWaterAmounts(new int[][] { { 5, 1, 5 }, { 5, 3, 5 }, { 5, 1, 5 }, { 1, 2 } }));
+        assertEquals(List.of(2), batchLengths);
+        assertEquals(2, batchSolver.getHitCount());
+        assertEquals(3, batchSolver.getMissCount());
+
+        assertArrayEquals(new long[] { 2, 0 }, batchSolver.calculateWaterAmounts(new int[][] { { 5, 3, 5 }, { 1, 2 } }));
+        assertEquals(List.of(2), batchLengths);
+        assertEquals(3, batchSolver.getCachedLandscapeCount());
+    }
+
+    @Test
+    void checkFailedSolvesAreNotCached() {
+        CachingWaterPoolSolver failingSolver = new CachingWaterPoolSolver(new SequentialWaterPoolSolver() {
+            @Override
+            public long calculateWaterAmount(int[] landscape) {
+                return -1;
+            }
+        }, 1 << 20);
+
+        assertEquals(-1, failingSolver.calculateWaterAmount(new int[] { 5, 1, 5 }));
+        assertArrayEquals(new long[] { -1 }, failingSolver.calculateWaterAmounts(new int[][] { { 5, 1, 5 } }));
+        assertEquals(0, failingSolver.getHitCount());
+        assertEquals(0, failingSolver.getCachedLandscapeCount());
+    }
+
+    @Test
+    void checkHashSpreadsSmallChanges() {
+        Set<Long> hashes = new HashSet<>();
+        int[] landscape = new int[37];
+        for (int i = 0; i < landscape.length; i++) {
+            for (int height = 1; height <= 10; height++) {
+                landscape[i] = height;
+                hashes.add(CachingWaterPoolSolver.hash(landscape));
+            }
+            landscape[i] = 0;
+        }
+        hashes.add(CachingWaterPoolSolver.hash(landscape));
+        hashes.add(CachingWaterPoolSolver.hash(new int[36]));
+        assertEquals(37 * 10 + 2, hashes.size());
+    }
+
+    @Test
+    void checkPrimarySolverIsCachedWhenEnabled() {
+        context.close();
+        System.setProperty("waterpools.cache.enabled", "true");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+
+        assertSame(context.getBean(CachingWaterPoolSolver.class), context.getBean(IWaterPoolSolver.class));
+    }
+}
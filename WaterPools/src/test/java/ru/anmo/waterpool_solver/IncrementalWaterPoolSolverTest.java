@@ -0,0 +1,83 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalWaterPoolSolverTest {
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(world -> new IncrementalWaterPoolSolver(world).getWaterAmount());
+    }
+
+    @Test
+    void checkPointUpdates() {
+        IncrementalWaterPoolSolver solver = new IncrementalWaterPoolSolver(new int[] { 5, 1, 5, 1, 1 });
+        assertEquals(4, solver.getWaterAmount());
+
+        solver.update(4, 3);
+        assertEquals(6, solver.getWaterAmount());
+        assertEquals(3, solver.getHeight(4));
+
+        solver.update(0, 0);
+        assertEquals(2, solver.getWaterAmount());
+        assertEquals(0, solver.getWaterAmount(0, 3));
+        assertEquals(2, solver.getWaterAmount(2, 5));
+    }
+
+    @Test
+    void checkRangeUpdates() {
+        IncrementalWaterPoolSolver solver = new IncrementalWaterPoolSolver(new int[10]);
+        solver.update(0, 10, 7);
+        assertEquals(0, solver.getWaterAmount());
+
+        solver.update(2, 8, 1);
+        assertEquals(36, solver.getWaterAmount());
+        assertEquals(1, solver.getHeight(5));
+
+        solver.update(4, 7);
+        assertEquals(30, solver.getWaterAmount());
+        assertEquals(0, solver.getWaterAmount(2, 8));
+    }
+
+    @Test
+    void checkRandomUpdatesMatchFullResolve() {
+        SplittableRandom random = new SplittableRandom(11);
+        int[] landscape = random.ints(1_000, 0, 100).toArray();
+        IncrementalWaterPoolSolver solver = new IncrementalWaterPoolSolver(landscape);
+
+        for (int step = 0; step < 2_000; step++) {
+            if (random.nextInt(4) == 0) {
+                int from = random.nextInt(landscape.length);
+                int to = random.nextInt(from, landscape.length + 1);
+                int height = random.nextInt(100);
+                Arrays.fill(landscape, from, to, height);
+                solver.update(from, to, height);
+            } else {
+                int index = random.nextInt(landscape.length);
+                landscape[index] = random.nextInt(100);
+                solver.update(index, landscape[index]);
+            }
+
+            int from = random.nextInt(landscape.length);
+            int to = random.nextInt(from, landscape.length + 1);
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, 0, landscape.length), solver.getWaterAmount());
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, from, to), solver.getWaterAmount(from, to));
+        }
+        for (int i = 0; i < landscape.length; i++) {
+            assertEquals(landscape[i], solver.getHeight(i));
+        }
+    }
+
+    @Test
+    void checkIndexesAreValidated() {
+        IncrementalWaterPoolSolver solver = new IncrementalWaterPoolSolver(new int[] { 1, 2, 3 });
+        assertThrows(IndexOutOfBoundsException.class, () -> solver.update(3, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> solver.update(2, 1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> solver.getWaterAmount(0, 4));
+    }
+}
@@ -0,0 +1,38 @@
+package ru.anmo.waterpool_solver;
+
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The hand-solved worlds of {@link WaterPoolSolverTest}, shared by the tests of the other solvers.
+ */
+final class ManualWorlds {
+
+    // Check "v4" and "v1" visualizations https://docs.google.com/spreadsheets/d/1nqam-aRyXAa0rM-xaKNeF0LoPea6bWuu01QCQK1i8VM/edit?usp=sharing
+    static final int[][] WORLDS = {
+            { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 },
+            { 2, 4, 3, 5, 1, 1, 0, 3, 2, 4, 1, 0, 0, 0, 1, 3, 2, 2, 2, 6 },
+            { 2, 3, 6, 2, 4, 1, 0, 2, 1, 3, 2, 0, 2, 0, 1, 3, 2, 1, 1, 2 },
+            { 2, 3, 3, 2, 4, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 4, 2, 1, 1, 2 },
+            { 5, 1, 5 },
+            { 4, 1 },
+            { 5 },
+            { }
+    };
+    static final long[] WATER_AMOUNTS = { 36, 54, 22, 29, 4, 0, 0, 0 };
+
+    private ManualWorlds() {
+    }
+
+    /**
+     * Solves every manual world with {@code solver} and checks the amount and that the world was left intact.
+     */
+    static void assertSolvedBy(ToLongFunction<int[]> solver) {
+        for (int i = 0; i < WORLDS.length; i++) {
+            int[] world = WORLDS[i].clone();
+            assertEquals(WATER_AMOUNTS[i], solver.applyAsLong(world), "manual world " + i);
+            assertArrayEquals(WORLDS[i], world, "manual world " + i);
+        }
+    }
+}
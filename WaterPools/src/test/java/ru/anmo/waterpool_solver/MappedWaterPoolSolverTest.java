@@ -0,0 +1,116 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.HeightWidth;
+import ru.anmo.world_generator.LandscapeArena;
+import ru.anmo.world_generator.LandscapeFileStorage;
+import ru.anmo.world_generator.OffHeapLandscape;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedWaterPoolSolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AnnotationConfigApplicationContext context = null;
+    private MappedWaterPoolSolver waterPoolSolver;
+    private LandscapeFileStorage landscapeStorage;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(MappedWaterPoolSolver.class);
+        landscapeStorage = context.getBean(LandscapeFileStorage.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() throws IOException {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        Path file = tempDir.resolve("manual.wpl");
+        landscapeStorage.write(file, customWorld);
+
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file)));
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file, 8)));
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkShortFiles() throws IOException {
+        Path file = tempDir.resolve("short.wpl");
+
+        landscapeStorage.write(file, new int[] { 4, 1 });
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file)));
+
+        landscapeStorage.write(file, new int[] { });
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file)));
+    }
+
+    @Test
+    void checkEveryWidthAcrossManySegments() throws IOException {
+        for (HeightWidth width : HeightWidth.values()) {
+            int[] landscape = new SplittableRandom(width.ordinal()).ints(100_003, 0, Math.min(width.getMaxHeight(), 32000) + 1).toArray();
+            Path file = tempDir.resolve(width + ".wpl");
+            landscapeStorage.write(file, landscape, width);
+
+            long expected = SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+            assertEquals(expected, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file)));
+            assertEquals(expected, waterPoolSolver.calculateWaterAmount(landscapeStorage.map(file, 4096)));
+        }
+    }
+
+    @Test
+    void checkOffHeapLandscapes() {
+        try (LandscapeArena arena = new LandscapeArena()) {
+            for (HeightWidth width : HeightWidth.values()) {
+                int[] landscape = new SplittableRandom(width.ordinal()).ints(100_003, 0, Math.min(width.getMaxHeight(), 32000) + 1).toArray();
+                OffHeapLandscape offHeapLandscape = arena.allocate(landscape.length, width, 4096);
+                offHeapLandscape.setHeights(0, landscape);
+
+                long expected = SequentialWaterPoolSolver.solve(landscape, 0, landscape.length);
+                assertEquals(expected, waterPoolSolver.calculateWaterAmount(offHeapLandscape));
+                assertEquals(expected, context.getBean(SequentialWaterPoolSolver.class).calculateWaterAmount(offHeapLandscape));
+                assertEquals(expected, context.getBean(IWaterPoolSolver.class).calculateWaterAmount(offHeapLandscape));
+            }
+
+            OffHeapLandscape customWorld = arena.allocate(20, HeightWidth.BYTE, 3);
+            customWorld.setHeights(0, new int[] { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 });
+            assertEquals(36, waterPoolSolver.calculateWaterAmount(customWorld));
+            assertEquals(36, SequentialWaterPoolSolver.solve(customWorld));
+            assertEquals(0, SequentialWaterPoolSolver.solve(arena.allocate(2, HeightWidth.INT)));
+        }
+    }
+
+    @Test
+    void checkSegmentsNotMultipleOfBlock() {
+        int segmentColumns = MappedWaterPoolSolver.LENGTH_PER_TASK + MappedWaterPoolSolver.LENGTH_PER_TASK / 8;
+        try (LandscapeArena arena = new LandscapeArena()) {
+            for (long length : new long[] { segmentColumns, segmentColumns + MappedWaterPoolSolver.LENGTH_PER_TASK / 4 }) {
+                // The dip lies in the part of the first segment past its first whole block
+                int[] landscape = new int[(int) length];
+                Arrays.fill(landscape, 5);
+                landscape[MappedWaterPoolSolver.LENGTH_PER_TASK + 10] = 0;
+                OffHeapLandscape offHeapLandscape = arena.allocate(length, HeightWidth.BYTE, segmentColumns);
+                offHeapLandscape.setHeights(0, landscape);
+
+                assertEquals(5, SequentialWaterPoolSolver.solve(offHeapLandscape));
+                assertEquals(5, waterPoolSolver.calculateWaterAmount(offHeapLandscape));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPrefixWaterPoolSolverTest {
+
+    private static final int BIG_WORLD_LENGTH = ParallelPrefixWaterPoolSolver.LENGTH_PER_TASK * 37 + 11;
+
+    private AnnotationConfigApplicationContext context = null;
+    private ParallelPrefixWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(ParallelPrefixWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkBigRandomWorldMatchesSequentialSolver() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] generatedWorld = random.ints(BIG_WORLD_LENGTH, 0, 32001).toArray();
+        int[] originalWorld = generatedWorld.clone();
+
+        assertEquals(SequentialWaterPoolSolver.solve(generatedWorld, 0, generatedWorld.length), waterPoolSolver.calculateWaterAmount(generatedWorld));
+        assertArrayEquals(originalWorld, generatedWorld);
+    }
+
+    @Test
+    void checkBigValleyWorld() {
+        int[] valley = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> Math.abs(BIG_WORLD_LENGTH / 2 - i)).toArray();
+        assertEquals(SequentialWaterPoolSolver.solve(valley, 0, valley.length), waterPoolSolver.calculateWaterAmount(valley));
+    }
+
+    @Test
+    void checkBigRampAndPlateauWorlds() {
+        int[] ramp = IntStream.range(0, BIG_WORLD_LENGTH).toArray();
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(ramp));
+
+        int[] plateau = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> i % 1000 == 0 ? 7 : 3).toArray();
+        assertEquals(SequentialWaterPoolSolver.solve(plateau, 0, plateau.length), waterPoolSolver.calculateWaterAmount(plateau));
+    }
+
+    @Test
+    void checkBigWorldPoolsAreStitchedAcrossChunks() {
+        int[] randomWorld = new SplittableRandom(42).ints(BIG_WORLD_LENGTH, 0, 32001).toArray();
+        int[] valley = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> Math.abs(BIG_WORLD_LENGTH / 2 - i)).toArray();
+        int[] plateau = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> i % 1000 == 0 ? 7 : 3).toArray();
+        int[] chunkWalls = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> i % ParallelPrefixWaterPoolSolver.LENGTH_PER_TASK == 0 ? 9 : i % 5).toArray();
+
+        for (int[] world : new int[][] { randomWorld, valley, plateau, chunkWalls }) {
+            List<WaterPool> pools = waterPoolSolver.findPools(world);
+            assertEquals(SequentialWaterPoolSolverTest.perColumnPools(world), pools);
+            assertEquals(waterPoolSolver.calculateWaterAmount(world), pools.stream().mapToLong(WaterPool::getVolume).sum());
+        }
+        assertEquals(1, waterPoolSolver.findPools(valley).size());
+    }
+
+    @Test
+    void checkBigNarrowAndRunLengthWorlds() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] shortHeights = random.ints(BIG_WORLD_LENGTH, 0, 65536).toArray();
+        int[] chunkWalls = IntStream.range(0, BIG_WORLD_LENGTH).map(i -> i % ParallelPrefixWaterPoolSolver.LENGTH_PER_TASK == 0 ? 255 : i % 7).toArray();
+        short[] shortWorld = new short[BIG_WORLD_LENGTH];
+        byte[] byteWorld = new byte[BIG_WORLD_LENGTH];
+        for (int i = 0; i < BIG_WORLD_LENGTH; i++) {
+            shortWorld[i] = (short) shortHeights[i];
+            byteWorld[i] = (byte) chunkWalls[i];
+        }
+        RunLengthLandscape runLengthWorld = RunLengthLandscape.encode(shortHeights);
+        assertTrue(runLengthWorld.getRunCount() > ParallelPrefixWaterPoolSolver.LENGTH_PER_TASK);
+
+        long shortWater = SequentialWaterPoolSolver.solve(shortHeights, 0, shortHeights.length);
+        long byteWater = SequentialWaterPoolSolver.solve(chunkWalls, 0, chunkWalls.length);
+        for (Class<? extends IWaterPoolSolver> engine : List.of(ParallelPrefixWaterPoolSolver.class, WaterPoolSolver.class,
+                AdaptiveWaterPoolSolver.class, ShardedWaterPoolSolver.class, AsyncWaterPoolSolver.class)) {
+            IWaterPoolSolver solver = context.getBean(engine);
+            assertEquals(shortWater, solver.calculateWaterAmount(shortWorld), engine.getSimpleName());
+            assertEquals(byteWater, solver.calculateWaterAmount(byteWorld), engine.getSimpleName());
+            assertEquals(shortWater, solver.calculateWaterAmount(runLengthWorld), engine.getSimpleName());
+        }
+    }
+}
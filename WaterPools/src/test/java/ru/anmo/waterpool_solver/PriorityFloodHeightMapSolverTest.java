@@ -0,0 +1,120 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityFloodHeightMapSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private PriorityFloodHeightMapSolver heightMapSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        heightMapSolver = context.getBean(PriorityFloodHeightMapSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualMapSolving() {
+        assertEquals(4, heightMapSolver.calculateWaterAmount(new int[][] {
+                { 1, 4, 3, 1, 3, 2 },
+                { 3, 2, 1, 3, 2, 4 },
+                { 2, 3, 3, 2, 3, 1 } }));
+        assertEquals(10, heightMapSolver.calculateWaterAmount(new int[][] {
+                { 3, 3, 3, 3, 3 },
+                { 3, 2, 2, 2, 3 },
+                { 3, 2, 1, 2, 3 },
+                { 3, 2, 2, 2, 3 },
+                { 3, 3, 3, 3, 3 } }));
+        assertEquals(0, heightMapSolver.calculateWaterAmount(new int[][] { { 5, 1, 5 }, { 5, 1, 5 } }));
+        assertEquals(0, heightMapSolver.calculateWaterAmount(new int[0][]));
+    }
+
+    @Test
+    void checkRandomMapsMatchRelaxationSolution() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 20; i++) {
+            int width = random.nextInt(1, 40);
+            int rows = random.nextInt(1, 40);
+            int[] heights = random.ints((long) width * rows, 0, random.nextInt(1, 100)).toArray();
+            assertEquals(relaxationSolution(heights, width), heightMapSolver.calculateWaterAmount(heights, width));
+        }
+    }
+
+    @Test
+    void checkWideHeightRangeUsesHeap() {
+        assertFalse(new CellQueue(0, 1_000_000_000, 100).isBucketQueue());
+        assertTrue(new CellQueue(0, 32000, 100).isBucketQueue());
+
+        int[] heights = new SplittableRandom(4).ints(50 * 50, -1_000_000_000, 1_000_000_000).toArray();
+        assertEquals(relaxationSolution(heights, 50), heightMapSolver.calculateWaterAmount(heights, 50));
+    }
+
+    @Test
+    void checkIncorrectShapes() {
+        assertThrows(IllegalArgumentException.class, () -> heightMapSolver.calculateWaterAmount(new int[10], 3));
+        assertThrows(IllegalArgumentException.class, () -> heightMapSolver.calculateWaterAmount(new int[10], 0));
+        assertThrows(IllegalArgumentException.class, () -> heightMapSolver.calculateWaterAmount(new int[][] { { 1, 2 }, { 1 } }));
+    }
+
+    /**
+     * Lowers every level to {@code max(height, lowest neighbour level)} until nothing changes.
+     */
+    static long relaxationSolution(int[] heights, int width) {
+        int rows = heights.length / width;
+        long[] levels = new long[heights.length];
+        Arrays.fill(levels, Long.MAX_VALUE);
+        for (int cell = 0; cell < heights.length; cell++) {
+            int x = cell % width;
+            int y = cell / width;
+            if (x == 0 || y == 0 || x == width - 1 || y == rows - 1) {
+                levels[cell] = heights[cell];
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int cell = 0; cell < heights.length; cell++) {
+                int x = cell % width;
+                long lowest = Long.MAX_VALUE;
+                if (x > 0) {
+                    lowest = Math.min(lowest, levels[cell - 1]);
+                }
+                if (x < width - 1) {
+                    lowest = Math.min(lowest, levels[cell + 1]);
+                }
+                if (cell >= width) {
+                    lowest = Math.min(lowest, levels[cell - width]);
+                }
+                if (cell < heights.length - width) {
+                    lowest = Math.min(lowest, levels[cell + width]);
+                }
+                long level = Math.max(heights[cell], lowest);
+                if (level < levels[cell]) {
+                    levels[cell] = level;
+                    changed = true;
+                }
+            }
+        }
+
+        long sum = 0;
+        for (int cell = 0; cell < heights.length; cell++) {
+            sum += levels[cell] - heights[cell];
+        }
+        return sum;
+    }
+}
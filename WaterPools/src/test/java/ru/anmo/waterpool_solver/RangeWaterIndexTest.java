@@ -0,0 +1,98 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeWaterIndexTest {
+
+    private AnnotationConfigApplicationContext context = null;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.executor.parallelism", "4");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.executor.parallelism");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldRanges() {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        RangeWaterIndex index = new RangeWaterIndex(customWorld);
+
+        assertEquals(36, index.getWaterAmount(0, customWorld.length));
+        assertEquals(0, index.getWaterAmount(3, 5));
+        assertEquals(0, index.getWaterAmount(5, 5));
+        assertEquals(SequentialWaterPoolSolver.solve(customWorld, 1, 8), index.getWaterAmount(1, 8));
+    }
+
+    @Test
+    void checkEveryRangeOfSmallWorlds() {
+        SplittableRandom random = new SplittableRandom(21);
+        for (int maxHeight : new int[] { 1, 3, 32000 }) {
+            int[] landscape = random.ints(300, 0, maxHeight + 1).toArray();
+            RangeWaterIndex index = new RangeWaterIndex(landscape);
+
+            for (int from = 0; from <= landscape.length; from++) {
+                for (int to = from; to <= landscape.length; to++) {
+                    assertEquals(SequentialWaterPoolSolver.solve(landscape, from, to), index.getWaterAmount(from, to), "[" + from + ", " + to + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void checkRandomRangesOfBigWorld() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] landscape = random.ints(100_000, 0, 100).toArray();
+        RangeWaterIndex index = new RangeWaterIndex(landscape);
+
+        for (int query = 0; query < 1000; query++) {
+            int from = random.nextInt(0, landscape.length);
+            int to = random.nextInt(from, landscape.length + 1);
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, from, to), index.getWaterAmount(from, to));
+        }
+    }
+
+    @Test
+    void checkBatchedQueries() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] landscape = random.ints(10_000, 0, 32001).toArray();
+        RangeWaterIndex index = new RangeWaterIndex(landscape);
+
+        int[] fromIndexes = new int[5000];
+        int[] toIndexes = new int[5000];
+        for (int query = 0; query < fromIndexes.length; query++) {
+            fromIndexes[query] = random.nextInt(0, landscape.length);
+            toIndexes[query] = random.nextInt(fromIndexes[query], landscape.length + 1);
+        }
+
+        long[] waterAmounts = index.getWaterAmounts(fromIndexes, toIndexes);
+        assertArrayEquals(waterAmounts, index.getWaterAmounts(context.getBean(ForkJoinPool.class), fromIndexes, toIndexes));
+        for (int query = 0; query < fromIndexes.length; query += 100) {
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, fromIndexes[query], toIndexes[query]), waterAmounts[query]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> index.getWaterAmounts(new int[1], new int[2]));
+    }
+
+    @Test
+    void checkIncorrectRanges() {
+        RangeWaterIndex index = new RangeWaterIndex(new int[] { 5, 1, 5 });
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getWaterAmount(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getWaterAmount(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getWaterAmount(0, 4));
+        assertEquals(0, new RangeWaterIndex(new int[0]).getWaterAmount(0, 0));
+    }
+}
@@ -0,0 +1,178 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.HeightWidth;
+import ru.anmo.world_generator.IWorldGenerator;
+import ru.anmo.world_generator.NarrowWorld;
+import ru.anmo.world_generator.RunLengthLandscape;
+import ru.anmo.world_generator.WorldGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequentialWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private SequentialWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(SequentialWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkMonotoneRampIsDry() {
+        int[] ramp = IntStream.range(0, 100_000).toArray();
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(ramp));
+    }
+
+    @Test
+    void checkRandomWorldsMatchPrefixSuffixSolution() {
+        IWorldGenerator worldGenerator = context.getBean(WorldGenerator.class);
+
+        for (int i = 0; i < 5; i++) {
+            int[] generatedWorld = worldGenerator.generateRandomWorld();
+            int[] originalWorld = generatedWorld.clone();
+
+            assertEquals(prefixSuffixSolution(generatedWorld), waterPoolSolver.calculateWaterAmount(generatedWorld));
+            assertArrayEquals(originalWorld, generatedWorld);
+        }
+    }
+
+    @Test
+    void checkRecursiveSolverAgreesOnRandomWorld() {
+        int[] generatedWorld = context.getBean(WorldGenerator.class).generateRandomWorld();
+        assertEquals(context.getBean(WaterPoolSolver.class).calculateWaterAmount(generatedWorld), waterPoolSolver.calculateWaterAmount(generatedWorld));
+    }
+
+    @Test
+    void checkNarrowWorldSolving() {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(NarrowWorld.narrow(customWorld)));
+        assertEquals(200, waterPoolSolver.calculateWaterAmount(new byte[] { (byte) 200, 0, (byte) 204 }));
+        assertEquals(55000, waterPoolSolver.calculateWaterAmount(new short[] { (short) 65000, 5000, (short) 60000 }));
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(new short[] { }));
+    }
+
+    @Test
+    void checkNarrowWorldsMatchIntWorlds() throws IWorldGenerator.IncorrectWorldParametersException {
+        IWorldGenerator worldGenerator = context.getBean(WorldGenerator.class);
+
+        NarrowWorld byteWorld = worldGenerator.generateNarrowWorld(WorldGenerator.MAX_LENGTH, 255);
+        NarrowWorld shortWorld = worldGenerator.generateNarrowWorld(WorldGenerator.MAX_LENGTH, WorldGenerator.MAX_HEIGHT);
+
+        assertEquals(HeightWidth.BYTE, byteWorld.getHeightWidth());
+        assertEquals(HeightWidth.SHORT, shortWorld.getHeightWidth());
+        assertEquals(prefixSuffixSolution(byteWorld.toIntArray()), waterPoolSolver.calculateWaterAmount(byteWorld));
+        assertEquals(prefixSuffixSolution(shortWorld.toIntArray()), waterPoolSolver.calculateWaterAmount(shortWorld));
+    }
+
+    @Test
+    void checkRunLengthWorldSolving() throws IWorldGenerator.IncorrectWorldParametersException {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(RunLengthLandscape.encode(customWorld)));
+        assertEquals(0, waterPoolSolver.calculateWaterAmount(RunLengthLandscape.encode(new int[] { })));
+
+        RunLengthLandscape wideWorld = RunLengthLandscape.of(new int[] { 10, 0, 4, 10 }, new long[] { 1, 5_000_000_000L, 1L << 40, 3 });
+        assertEquals(10 * 5_000_000_000L + 6 * (1L << 40), waterPoolSolver.calculateWaterAmount(wideWorld));
+        assertThrows(ArithmeticException.class, () -> waterPoolSolver.calculateWaterAmount(
+                RunLengthLandscape.of(new int[] { Integer.MAX_VALUE, 0, Integer.MAX_VALUE }, new long[] { 1, Long.MAX_VALUE / 2, 1 })));
+
+        RunLengthLandscape generatedWorld = context.getBean(WorldGenerator.class).generateRunLengthWorld(1_000_000, 1000, 200, 22);
+        assertEquals(prefixSuffixSolution(generatedWorld.toIntArray()), waterPoolSolver.calculateWaterAmount(generatedWorld));
+        assertEquals(waterPoolSolver.calculateWaterAmount(generatedWorld),
+                     waterPoolSolver.calculateWaterAmount(RunLengthLandscape.encode(generatedWorld.toIntArray())));
+    }
+
+    @Test
+    void checkSequentialEngineIsPrimaryByDefault() {
+        assertInstanceOf(SequentialWaterPoolSolver.class, context.getBean(IWaterPoolSolver.class));
+    }
+
+    @Test
+    void checkPoolExtraction() {
+        assertEquals(List.of(new WaterPool(1, 2, 5, 4)), waterPoolSolver.findPools(new int[] { 5, 1, 5, 1, 1 }));
+        assertEquals(List.of(new WaterPool(1, 4, 3, 8)), waterPoolSolver.findPools(new int[] { 3, 0, 1, 0, 3 }));
+        assertEquals(List.of(new WaterPool(1, 2, 2, 2), new WaterPool(3, 4, 2, 2)), waterPoolSolver.findPools(new int[] { 2, 0, 2, 0, 2 }));
+        assertEquals(List.of(), waterPoolSolver.findPools(new int[] { 1, 2, 3, 3, 1 }));
+        assertEquals(List.of(), waterPoolSolver.findPools(new int[] { }));
+    }
+
+    @Test
+    void checkRandomWorldPoolsMatchPerColumnWater() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 20; i++) {
+            int[] generatedWorld = random.ints(random.nextInt(1, 2000), 0, random.nextInt(1, 50)).toArray();
+            List<WaterPool> pools = waterPoolSolver.findPools(generatedWorld);
+
+            assertEquals(perColumnPools(generatedWorld), pools);
+            assertEquals(waterPoolSolver.calculateWaterAmount(generatedWorld), pools.stream().mapToLong(WaterPool::getVolume).sum());
+        }
+    }
+
+    /**
+     * Pools built from the per-column water of the prefix and suffix maxima.
+     */
+    static List<WaterPool> perColumnPools(int[] landscape) {
+        int[] leftMax = new int[landscape.length];
+        int[] rightMax = new int[landscape.length];
+        for (int i = 0; i < landscape.length; i++) {
+            leftMax[i] = Math.max(landscape[i], i > 0 ? leftMax[i - 1] : 0);
+        }
+        for (int i = landscape.length - 1; i >= 0; i--) {
+            rightMax[i] = Math.max(landscape[i], i < landscape.length - 1 ? rightMax[i + 1] : 0);
+        }
+        List<WaterPool> pools = new ArrayList<>();
+        int i = 0;
+        while (i < landscape.length) {
+            int level = Math.min(leftMax[i], rightMax[i]);
+            if (level == landscape[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            long volume = 0;
+            while (i < landscape.length && Math.min(leftMax[i], rightMax[i]) > landscape[i]) {
+                volume += Math.min(leftMax[i], rightMax[i]) - landscape[i];
+                i++;
+            }
+            pools.add(new WaterPool(start, i, level, volume));
+        }
+        return pools;
+    }
+
+    static long prefixSuffixSolution(int[] landscape) {
+        int[] leftMax = new int[landscape.length];
+        int[] rightMax = new int[landscape.length];
+        for (int i = 0; i < landscape.length; i++) {
+            leftMax[i] = Math.max(landscape[i], i > 0 ? leftMax[i - 1] : 0);
+        }
+        for (int i = landscape.length - 1; i >= 0; i--) {
+            rightMax[i] = Math.max(landscape[i], i < landscape.length - 1 ? rightMax[i + 1] : 0);
+        }
+        long sum = 0;
+        for (int i = 0; i < landscape.length; i++) {
+            sum += Math.min(leftMax[i], rightMax[i]) - landscape[i];
+        }
+        return sum;
+    }
+}
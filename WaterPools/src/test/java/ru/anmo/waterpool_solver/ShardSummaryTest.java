@@ -0,0 +1,100 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardSummaryTest {
+
+    @Test
+    void checkManualWorldShards() {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+
+        for (int split = 0; split <= customWorld.length; split++) {
+            ShardSummary merged = ShardSummary.merge(ShardSummary.of(customWorld, 0, split), ShardSummary.of(customWorld, split, customWorld.length));
+            assertEquals(36, merged.getWaterAmount());
+            assertEquals(ShardSummary.of(customWorld, 0, customWorld.length), merged);
+        }
+    }
+
+    @Test
+    void checkRandomShardsMergeExactly() {
+        SplittableRandom random = new SplittableRandom(19);
+        for (int round = 0; round < 200; round++) {
+            int[] landscape = random.ints(random.nextInt(1, 300), 0, random.nextInt(1, 50)).toArray();
+
+            List<ShardSummary> shards = new ArrayList<>();
+            for (int start = 0; start < landscape.length; ) {
+                int end = Math.min(landscape.length, start + random.nextInt(0, 40));
+                shards.add(ShardSummary.of(landscape, start, end));
+                start = end;
+            }
+
+            ShardSummary merged = ShardSummary.merge(shards);
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, 0, landscape.length), merged.getWaterAmount());
+            assertEquals(landscape.length, merged.getLength());
+            assertEquals(ShardSummary.of(landscape, 0, landscape.length), merged);
+        }
+    }
+
+    @Test
+    void checkMergeIsAssociative() {
+        int[] landscape = new SplittableRandom(7).ints(90, 0, 20).toArray();
+        ShardSummary first = ShardSummary.of(landscape, 0, 30);
+        ShardSummary second = ShardSummary.of(landscape, 30, 60);
+        ShardSummary third = ShardSummary.of(landscape, 60, 90);
+
+        assertEquals(ShardSummary.merge(ShardSummary.merge(first, second), third),
+                     ShardSummary.merge(first, ShardSummary.merge(second, third)));
+        assertSame(first, ShardSummary.merge(ShardSummary.EMPTY, first));
+        assertSame(first, ShardSummary.merge(first, ShardSummary.EMPTY));
+    }
+
+    @Test
+    void checkWaterBetweenBorders() {
+        SplittableRandom random = new SplittableRandom(3);
+        int[] landscape = random.ints(100, 0, 30).toArray();
+        ShardSummary summary = ShardSummary.of(landscape, 0, landscape.length);
+
+        for (int round = 0; round < 100; round++) {
+            int leftBorderMax = random.nextBoolean() ? Integer.MIN_VALUE : random.nextInt(0, 40);
+            int rightBorderMax = random.nextBoolean() ? Integer.MIN_VALUE : random.nextInt(0, 40);
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, 0, landscape.length, leftBorderMax, rightBorderMax),
+                         summary.getWaterAmount(leftBorderMax, rightBorderMax));
+        }
+    }
+
+    @Test
+    void checkSummariesStayCompact() {
+        int[] landscape = new SplittableRandom(11).ints(1_000_000, 0, 32001).toArray();
+        ShardSummary summary = ShardSummary.of(landscape, 0, landscape.length);
+        assertTrue(summary.getStepCount() < 100);
+
+        int[] ramp = new int[1000];
+        for (int i = 0; i < ramp.length; i++) {
+            ramp[i] = i;
+        }
+        assertEquals(ramp.length, ShardSummary.of(ramp, 0, ramp.length).getStepCount());
+    }
+
+    @Test
+    void checkBinaryForm() throws IOException {
+        int[] landscape = new SplittableRandom(5).ints(1000, 0, 100).toArray();
+        ShardSummary summary = ShardSummary.of(landscape, 100, 900);
+
+        assertEquals(summary, ShardSummary.fromBytes(summary.toBytes()));
+        assertEquals(ShardSummary.EMPTY, ShardSummary.fromBytes(ShardSummary.EMPTY.toBytes()));
+        assertThrows(IOException.class, () -> ShardSummary.fromBytes(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+
+        byte[] hugeStaircase = ShardSummary.EMPTY.toBytes();
+        ByteBuffer.wrap(hugeStaircase).putInt(24, Integer.MAX_VALUE);
+        assertThrows(EOFException.class, () -> ShardSummary.fromBytes(hugeStaircase));
+    }
+}
@@ -0,0 +1,70 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private ShardedWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.shard.length", "1000");
+        System.setProperty("waterpools.executor.parallelism", "4");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(ShardedWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.shard.length");
+        System.clearProperty("waterpools.executor.parallelism");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkIncorrectShardLength() {
+        System.setProperty("waterpools.shard.length", "0");
+        BeanCreationException e = assertThrows(BeanCreationException.class, () -> new AnnotationConfigApplicationContext(AppConfiguration.class));
+        assertInstanceOf(IllegalArgumentException.class, e.getMostSpecificCause());
+    }
+
+    @Test
+    void checkRandomWorldsAcrossShards() {
+        assertEquals(1000, waterPoolSolver.getShardLength());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int length : new int[] { 999, 1000, 1001, 25_000, 100_003 }) {
+            int[] landscape = random.ints(length, 0, 32001).toArray();
+            assertEquals(SequentialWaterPoolSolver.solve(landscape, 0, landscape.length), waterPoolSolver.calculateWaterAmount(landscape));
+        }
+    }
+
+    @Test
+    void checkSummariesFromElsewhere() {
+        int[] landscape = new SplittableRandom(1).ints(3000, 0, 100).toArray();
+        List<CompletableFuture<byte[]>> encodedShards = List.of(
+                CompletableFuture.completedFuture(ShardSummary.of(landscape, 0, 1234).toBytes()),
+                CompletableFuture.completedFuture(ShardSummary.of(landscape, 1234, 3000).toBytes()));
+
+        assertEquals(SequentialWaterPoolSolver.solve(landscape, 0, landscape.length),
+                     ShardedWaterPoolSolver.combine(encodedShards).getWaterAmount());
+        assertThrows(IllegalStateException.class,
+                () -> ShardedWaterPoolSolver.combine(List.of(CompletableFuture.<byte[]>failedFuture(new RuntimeException("node lost")))));
+    }
+}
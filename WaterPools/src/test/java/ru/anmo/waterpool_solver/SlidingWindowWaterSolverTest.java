@@ -0,0 +1,71 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowWaterSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private SlidingWindowWaterSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.executor.parallelism", "4");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(SlidingWindowWaterSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.executor.parallelism");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldWindows() {
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+
+        assertArrayEquals(new long[] { 36 }, waterPoolSolver.calculateWindowWaterAmounts(customWorld, customWorld.length));
+        assertArrayEquals(new long[] { 0, 0, 1, 0, 0, 1 }, waterPoolSolver.calculateWindowWaterAmounts(new int[] { 2, 3, 3, 1, 2, 1, 0, 5 }, 3));
+        assertArrayEquals(new long[customWorld.length - 1], waterPoolSolver.calculateWindowWaterAmounts(customWorld, 2));
+        assertEquals(0, waterPoolSolver.calculateWindowWaterAmounts(customWorld, customWorld.length + 1).length);
+        assertThrows(IllegalArgumentException.class, () -> waterPoolSolver.calculateWindowWaterAmounts(customWorld, 0));
+    }
+
+    @Test
+    void checkEveryWindowOfSmallWorlds() {
+        SplittableRandom random = new SplittableRandom(25);
+        for (int maxHeight : new int[] { 1, 3, 32000 }) {
+            int[] landscape = random.ints(300, 0, maxHeight + 1).toArray();
+            for (int windowLength = 1; windowLength <= landscape.length; windowLength += 7) {
+                long[] waterAmounts = waterPoolSolver.calculateWindowWaterAmounts(landscape, windowLength);
+                assertEquals(landscape.length - windowLength + 1, waterAmounts.length);
+                for (int i = 0; i < waterAmounts.length; i++) {
+                    assertEquals(SequentialWaterPoolSolver.solve(landscape, i, i + windowLength), waterAmounts[i], "window " + i + " of " + windowLength);
+                }
+            }
+        }
+    }
+
+    @Test
+    void checkParallelChunksMatchSequentialPass() {
+        SplittableRandom random = new SplittableRandom(26);
+        int[] landscape = random.ints(3 * SlidingWindowWaterSolver.WINDOWS_PER_TASK + 123, 0, 32001).toArray();
+        for (int windowLength : new int[] { 3, 1000, SlidingWindowWaterSolver.WINDOWS_PER_TASK + 5 }) {
+            long[] waterAmounts = waterPoolSolver.calculateWindowWaterAmountsParallel(landscape, windowLength);
+            assertArrayEquals(waterPoolSolver.calculateWindowWaterAmounts(landscape, windowLength), waterAmounts);
+
+            for (int check = 0; check < 50; check++) {
+                int i = random.nextInt(waterAmounts.length);
+                assertEquals(SequentialWaterPoolSolver.solve(landscape, i, i + windowLength), waterAmounts[i], "window " + i + " of " + windowLength);
+            }
+        }
+    }
+}
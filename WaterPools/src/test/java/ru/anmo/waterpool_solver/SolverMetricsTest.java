@@ -0,0 +1,117 @@
+package ru.anmo.waterpool_solver;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.RunLengthLandscape;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverMetricsTest {
+
+    private AnnotationConfigApplicationContext context = null;
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.metrics.enabled");
+        System.clearProperty("waterpools.solver.engine");
+        context.close();
+    }
+
+    @Test
+    void checkMetricsAreOffByDefault() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        SolverMetrics metrics = context.getBean(SolverMetrics.class);
+
+        assertFalse(metrics.isEnabled());
+        assertInstanceOf(SequentialWaterPoolSolver.class, context.getBean(IWaterPoolSolver.class));
+
+        context.getBean(WaterPoolSolver.class).calculateWaterAmount(new int[] { 5, 1, 5, 1, 3 });
+        assertEquals(0, metrics.getSolveCount());
+        assertEquals(0, metrics.getSubmittedTaskCount());
+    }
+
+    @Test
+    void checkSolveLatencyIsRecordedBySize() {
+        System.setProperty("waterpools.metrics.enabled", "true");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        SolverMetrics metrics = context.getBean(SolverMetrics.class);
+        IWaterPoolSolver waterPoolSolver = context.getBean(IWaterPoolSolver.class);
+
+        assertInstanceOf(InstrumentedWaterPoolSolver.class, waterPoolSolver);
+        assertEquals(36, waterPoolSolver.calculateWaterAmount(new int[] { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 }));
+        assertEquals(4, waterPoolSolver.calculateWaterAmount(new short[] { 5, 1, 5 }));
+
+        assertEquals(2, metrics.getSolveCount());
+        assertEquals(1, Arrays.stream(metrics.getLatencyHistogram(SolverMetrics.sizeBucket(20))).sum());
+        assertEquals(1, Arrays.stream(metrics.getLatencyHistogram(SolverMetrics.sizeBucket(3))).sum());
+        assertEquals(0, Arrays.stream(metrics.getLatencyHistogram(SolverMetrics.sizeBucket(1000))).sum());
+        assertTrue(metrics.getExecutorQueueDepth() >= 0);
+    }
+
+    @Test
+    void checkLongLandscapesAreRecorded() {
+        System.setProperty("waterpools.metrics.enabled", "true");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        SolverMetrics metrics = context.getBean(SolverMetrics.class);
+        IWaterPoolSolver waterPoolSolver = context.getBean(IWaterPoolSolver.class);
+
+        RunLengthLandscape wideWorld = RunLengthLandscape.of(new int[] { 3, 0, 3 }, new long[] { 1, 1L << 31, 1 });
+        assertEquals(3L << 31, waterPoolSolver.calculateWaterAmount(wideWorld));
+        metrics.recordSolve(Long.MAX_VALUE, 1000);
+
+        assertEquals(2, metrics.getSolveCount());
+        assertEquals(1, Arrays.stream(metrics.getLatencyHistogram(SolverMetrics.sizeBucket(wideWorld.getLength()))).sum());
+        assertEquals(1, Arrays.stream(metrics.getLatencyHistogram(SolverMetrics.sizeBucket(Long.MAX_VALUE))).sum());
+    }
+
+    @Test
+    void checkRecursiveFanOutIsRecorded() {
+        System.setProperty("waterpools.metrics.enabled", "true");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        SolverMetrics metrics = context.getBean(SolverMetrics.class);
+
+        int[] generatedWorld = new SplittableRandom(1).ints(5_000, 0, 1000).toArray();
+        assertEquals(SequentialWaterPoolSolver.solve(generatedWorld, 0, generatedWorld.length),
+                     context.getBean(WaterPoolSolver.class).calculateWaterAmount(generatedWorld));
+
+        assertTrue(metrics.getMaxRecursionDepth() > 0);
+        assertTrue(metrics.getSubmittedTaskCount() >= generatedWorld.length / 100);
+        assertTrue(metrics.getBlockedNanos() > 0);
+    }
+
+    @Test
+    void checkSolvesAreCommittedAsFlightRecorderEvents(@TempDir Path directory) throws Exception {
+        System.setProperty("waterpools.metrics.enabled", "true");
+        System.setProperty("waterpools.solver.engine", "RECURSIVE");
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        IWaterPoolSolver waterPoolSolver = context.getBean(IWaterPoolSolver.class);
+
+        Path recordingFile = directory.resolve("solves.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ru.anmo.waterpools.Solve");
+            recording.enable("ru.anmo.waterpools.RecursiveSolve");
+            recording.start();
+            waterPoolSolver.calculateWaterAmount(new int[] { 5, 1, 5, 1, 3 });
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        RecordedEvent solveEvent = events.stream().filter(event -> event.getEventType().getName().equals("ru.anmo.waterpools.Solve")).findFirst().orElseThrow();
+        assertEquals("WaterPoolSolver", solveEvent.getString("solver"));
+        assertEquals(5, solveEvent.getLong("landscapeLength"));
+        assertEquals(6, solveEvent.getLong("waterAmount"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("ru.anmo.waterpools.RecursiveSolve")));
+    }
+}
@@ -0,0 +1,72 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private StreamingWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(StreamingWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkAllSourcesMatchSequentialSolver() {
+        int[] generatedWorld = new SplittableRandom(3).ints(100_000, 0, 32001).toArray();
+        long expected = SequentialWaterPoolSolver.solve(generatedWorld, 0, generatedWorld.length);
+
+        assertEquals(expected, waterPoolSolver.calculateWaterAmount(Arrays.stream(generatedWorld)));
+        assertEquals(expected, waterPoolSolver.calculateWaterAmount(IntBuffer.wrap(generatedWorld)));
+
+        IntBuffer directBuffer = ByteBuffer.allocateDirect(generatedWorld.length * Integer.BYTES).asIntBuffer();
+        directBuffer.put(generatedWorld).flip();
+        assertEquals(expected, waterPoolSolver.calculateWaterAmount(directBuffer));
+        assertEquals(generatedWorld.length, directBuffer.remaining());
+    }
+
+    @Test
+    void checkChunkedSession() {
+        int[] generatedWorld = new SplittableRandom(5).ints(10_007, 0, 100).toArray();
+        StreamingWaterPoolSolver.Session session = waterPoolSolver.newSession();
+        for (int offset = 0; offset < generatedWorld.length; offset += 333) {
+            session.accept(generatedWorld, offset, Math.min(333, generatedWorld.length - offset));
+        }
+
+        assertEquals(generatedWorld.length, session.getColumnCount());
+        assertEquals(SequentialWaterPoolSolver.solve(generatedWorld, 0, generatedWorld.length), session.getWaterAmount());
+    }
+
+    @Test
+    void checkPendingWallsAreBoundedByPeaks() {
+        StreamingWaterPoolSolver.Session session = waterPoolSolver.newSession();
+        IntStream.range(0, 1_000_000).map(i -> i % 2 == 0 ? 10 : 0).forEach(session::accept);
+
+        assertEquals(10L * 499_999, session.getWaterAmount());
+        assertTrue(session.getPendingWallCount() <= 2);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.IWorldGenerator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TiledHeightMapSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private TiledHeightMapSolver heightMapSolver;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        heightMapSolver = context.getBean(TiledHeightMapSolver.class);
+        pool = context.getBean(ForkJoinPool.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkManualMapSolving() {
+        int[] heights = {
+                3, 3, 3, 3, 3,
+                3, 2, 2, 2, 3,
+                3, 2, 1, 2, 3,
+                3, 2, 2, 2, 3,
+                3, 3, 3, 3, 3 };
+        assertEquals(10, heightMapSolver.calculateWaterAmount(heights, 5));
+        for (int tileSize = 1; tileSize <= 5; tileSize++) {
+            assertEquals(10, TiledHeightMapSolver.solve(pool, heights, 5, tileSize));
+        }
+    }
+
+    @Test
+    void checkIncorrectTileSize() {
+        for (String tileSize : new String[] { "0", "2" }) {
+            System.setProperty("waterpools.heightmap.tile-size", tileSize);
+            try {
+                BeanCreationException e = assertThrows(BeanCreationException.class, () -> new AnnotationConfigApplicationContext(AppConfiguration.class));
+                assertInstanceOf(IllegalArgumentException.class, e.getMostSpecificCause());
+            } finally {
+                System.clearProperty("waterpools.heightmap.tile-size");
+            }
+        }
+    }
+
+    @Test
+    void checkRandomMapsMatchPriorityFlood() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20; i++) {
+            int width = random.nextInt(1, 120);
+            int rows = random.nextInt(1, 120);
+            int[] heights = random.ints((long) width * rows, 0, random.nextInt(1, 1000)).toArray();
+            int tileSize = random.nextInt(1, 40);
+            assertEquals(PriorityFloodHeightMapSolver.solve(heights, width), TiledHeightMapSolver.solve(pool, heights, width, tileSize));
+        }
+    }
+
+    @Test
+    void checkSerpentineChannelCrossesManyTiles() {
+        int size = 101;
+        int[] heights = new int[size * size];
+        Arrays.fill(heights, 100);
+        // Channel rows joined by alternating gaps, draining through a single notch at the top left corner
+        for (int y = 1; y < size - 1; y += 2) {
+            Arrays.fill(heights, y * size + 1, y * size + size - 1, 0);
+            if (y + 2 < size - 1) {
+                heights[(y + 1) * size + (y % 4 == 1 ? size - 2 : 1)] = 0;
+            }
+        }
+        heights[1] = 5;
+
+        long expected = PriorityFloodHeightMapSolver.solve(heights, size);
+        assertEquals(5L * (size / 2) * (size - 2) + 5L * (size / 2 - 1), expected);
+        assertEquals(expected, TiledHeightMapSolver.solve(pool, heights, size, 8));
+    }
+
+    @Test
+    void checkGeneratedMap() throws IWorldGenerator.IncorrectWorldParametersException {
+        int[] heights = context.getBean(IWorldGenerator.class).generateHeightMap(700, 500, 32000, 42);
+        assertEquals(700 * 500, heights.length);
+        assertEquals(PriorityFloodHeightMapSolver.solve(heights, 700), heightMapSolver.calculateWaterAmount(heights, 700));
+    }
+}
@@ -0,0 +1,64 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private VectorWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        waterPoolSolver = context.getBean(VectorWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkVectorApiIsAvailableInTests() {
+        assertTrue(VectorWaterPoolSolver.isVectorApiAvailable());
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkRandomWorldsOfEveryLengthMatchSequentialSolver() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int length = 3; length < 300; length++) {
+            int[] generatedWorld = random.ints(length, 0, 50).toArray();
+            assertEquals(SequentialWaterPoolSolver.solve(generatedWorld, 0, length), waterPoolSolver.calculateWaterAmount(generatedWorld));
+        }
+
+        int[] bigWorld = random.ints(1_000_003, 0, 32001).toArray();
+        assertEquals(SequentialWaterPoolSolver.solve(bigWorld, 0, bigWorld.length), waterPoolSolver.calculateWaterAmount(bigWorld));
+    }
+
+    @Test
+    void checkShapedWorlds() {
+        int[] valley = IntStream.range(0, 10_001).map(i -> Math.abs(5_000 - i)).toArray();
+        int[] plateau = IntStream.range(0, 10_001).map(i -> i % 100 == 0 ? 7 : 3).toArray();
+        int[] negative = { 3, -5, 3, -1, 2 };
+        int[] huge = IntStream.range(0, 1001).map(i -> i % 2 == 0 ? Integer.MAX_VALUE : 0).toArray();
+
+        assertEquals(SequentialWaterPoolSolver.solve(valley, 0, valley.length), waterPoolSolver.calculateWaterAmount(valley));
+        assertEquals(SequentialWaterPoolSolver.solve(plateau, 0, plateau.length), waterPoolSolver.calculateWaterAmount(plateau));
+        assertEquals(11, waterPoolSolver.calculateWaterAmount(negative));
+        assertEquals(500L * Integer.MAX_VALUE, waterPoolSolver.calculateWaterAmount(huge));
+    }
+}
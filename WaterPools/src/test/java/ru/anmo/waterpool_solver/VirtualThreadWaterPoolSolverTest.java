@@ -0,0 +1,100 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.configuration.VirtualThreadConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadWaterPoolSolverTest {
+
+    private AnnotationConfigApplicationContext context = null;
+    private VirtualThreadWaterPoolSolver waterPoolSolver;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("waterpools.executor.parallelism", "2");
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles(VirtualThreadConfiguration.PROFILE);
+        context.register(AppConfiguration.class);
+        context.refresh();
+        waterPoolSolver = context.getBean(VirtualThreadWaterPoolSolver.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("waterpools.executor.parallelism");
+        context.close();
+    }
+
+    @Test
+    void checkManualWorldSolving() {
+        ManualWorlds.assertSolvedBy(waterPoolSolver::calculateWaterAmount);
+    }
+
+    @Test
+    void checkSmallSolvesDoNotQueueBehindHugeOnes() throws Exception {
+        int[] hugeWorld = new SplittableRandom(1).ints(4 * AdaptiveWaterPoolSolver.DEFAULT_PARALLEL_THRESHOLD, 0, 32001).toArray();
+        int[] smallWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+
+        List<Future<Long>> hugeSolves = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            hugeSolves.add(waterPoolSolver.submit(hugeWorld));
+        }
+        List<Future<Long>> smallSolves = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            smallSolves.add(waterPoolSolver.submit(smallWorld));
+        }
+
+        for (Future<Long> smallSolve : smallSolves) {
+            assertEquals(36, smallSolve.get(30, TimeUnit.SECONDS));
+        }
+        long expected = SequentialWaterPoolSolver.solve(hugeWorld, 0, hugeWorld.length);
+        for (Future<Long> hugeSolve : hugeSolves) {
+            assertEquals(expected, hugeSolve.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void checkProfileSwitchesPrimarySolver() {
+        int[][] landscapes = { { 5, 1, 5 }, { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 } };
+        assertSame(waterPoolSolver, context.getBean(IWaterPoolSolver.class));
+        assertArrayEquals(new long[] { 4, 36 }, waterPoolSolver.calculateWaterAmounts(landscapes));
+    }
+
+    @Test
+    void checkRequestsRunOnVirtualThreadsWhenAvailable() throws Exception {
+        ExecutorService requestExecutor = context.getBean(VirtualThreadConfiguration.REQUEST_EXECUTOR, ExecutorService.class);
+        boolean onVirtualThread = requestExecutor.submit(() -> {
+            try {
+                return (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }).get(30, TimeUnit.SECONDS);
+        try (ExecutorService virtualThreadExecutor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor()) {
+            assertEquals(virtualThreadExecutor != null, onVirtualThread);
+        }
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+        assertTrue(onVirtualThread);
+    }
+
+    @Test
+    void checkProfileIsOffByDefault() {
+        try (AnnotationConfigApplicationContext defaultContext = new AnnotationConfigApplicationContext(AppConfiguration.class)) {
+            assertThrows(NoSuchBeanDefinitionException.class, () -> defaultContext.getBean(VirtualThreadWaterPoolSolver.class));
+        }
+    }
+}
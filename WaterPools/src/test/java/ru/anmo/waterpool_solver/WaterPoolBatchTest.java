@@ -0,0 +1,60 @@
+package ru.anmo.waterpool_solver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaterPoolBatchTest {
+
+    private AnnotationConfigApplicationContext context = null;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void checkSmallBatchSolving() {
+        int[][] landscapes = {
+                { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 },
+                { },
+                { 5, 1, 5 },
+                { 4, 1 },
+                { 2, 4, 3, 5, 1, 1, 0, 3, 2, 4, 1, 0, 0, 0, 1, 3, 2, 2, 2, 6 }
+        };
+        long[] manualSolutions = { 36, 0, 4, 0, 54 };
+
+        assertArrayEquals(manualSolutions, context.getBean(ParallelPrefixWaterPoolSolver.class).calculateWaterAmounts(landscapes));
+        assertArrayEquals(manualSolutions, context.getBean(WaterPoolSolver.class).calculateWaterAmounts(landscapes));
+        assertArrayEquals(manualSolutions, context.getBean(SequentialWaterPoolSolver.class).calculateWaterAmounts(List.of(landscapes)));
+    }
+
+    @Test
+    void checkBigBatchMatchesSingleSolving() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[][] landscapes = new int[20_000][];
+        for (int i = 0; i < landscapes.length; i++) {
+            int length = i % 1000 == 0 ? random.nextInt(100_000, 300_000) : random.nextInt(0, 300);
+            landscapes[i] = random.ints(length, 0, 1000).toArray();
+        }
+
+        long[] waterAmounts = context.getBean(ParallelPrefixWaterPoolSolver.class).calculateWaterAmounts(landscapes);
+
+        SequentialWaterPoolSolver sequentialSolver = context.getBean(SequentialWaterPoolSolver.class);
+        for (int i = 0; i < landscapes.length; i++) {
+            assertEquals(sequentialSolver.calculateWaterAmount(landscapes[i]), waterAmounts[i]);
+        }
+    }
+}
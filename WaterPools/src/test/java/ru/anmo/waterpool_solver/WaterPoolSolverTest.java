@@ -1,5 +1,6 @@
 package ru.anmo.waterpool_solver;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
@@ -7,6 +8,14 @@ import ru.anmo.configuration.AppConfiguration;
 import ru.anmo.world_generator.IWorldGenerator;
 import ru.anmo.world_generator.WorldGenerator;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class WaterPoolSolverTest {
@@ -20,6 +29,11 @@ class WaterPoolSolverTest {
         waterPoolSolver = context.getBean(WaterPoolSolver.class);
     }
 
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
     @Test
     void checkManualWorldSolving1() {
 
@@ -134,6 +148,47 @@ class WaterPoolSolverTest {
         assertTrue(isOriginalWorldWasNotDamaged(originalWorld, generatedWorld));
     }
 
+    @Test
+    void checkSolverIsReusable() {
+
+        int[] customWorld = { 2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2 };
+        int manualSolution = 36;
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(manualSolution, waterPoolSolver.calculateWaterAmount(customWorld));
+            assertEquals(manualSolution, context.getBean(WaterPoolSolver.class).calculateWaterAmount(customWorld));
+        }
+    }
+
+    @Test
+    void checkConcurrentSolving() throws Exception {
+
+        int[] customWorld = { 2, 4, 3, 5, 1, 1, 0, 3, 2, 4, 1, 0, 0, 0, 1, 3, 2, 2, 2, 6 };
+        int manualSolution = 54;
+
+        ExecutorService requestThreads = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Long>> requests = IntStream.range(0, 200)
+                    .mapToObj(i -> (Callable<Long>) () -> waterPoolSolver.calculateWaterAmount(customWorld))
+                    .toList();
+            for (Future<Long> result : requestThreads.invokeAll(requests)) {
+                assertEquals(manualSolution, result.get());
+            }
+        }
+        finally {
+            requestThreads.shutdown();
+        }
+    }
+
+    @Test
+    void checkExecutorIsShutDownWithContext() {
+        ForkJoinPool executor = context.getBean(ForkJoinPool.class);
+        assertFalse(executor.isShutdown());
+
+        context.close();
+        assertTrue(executor.isShutdown());
+    }
+
     private boolean isOriginalWorldWasNotDamaged(int[] originalWorld, int[] worldAfterCalculating) {
         if (worldAfterCalculating.length != originalWorld.length) {
             return false;
@@ -0,0 +1,75 @@
+package ru.anmo.world_generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandscapeArenaTest {
+
+    @Test
+    void checkHeightsAcrossSegments() {
+        try (LandscapeArena arena = new LandscapeArena()) {
+            for (HeightWidth width : HeightWidth.values()) {
+                int[] heights = new SplittableRandom(width.ordinal()).ints(1000, 0, Math.min(width.getMaxHeight(), 32000) + 1).toArray();
+                OffHeapLandscape landscape = arena.allocate(heights.length, width, 64);
+                landscape.setHeights(0, heights);
+
+                assertEquals(64 / width.getBytes(), landscape.getColumnsPerSegment());
+                assertEquals((heights.length + landscape.getColumnsPerSegment() - 1) / landscape.getColumnsPerSegment(), landscape.getSegmentCount());
+                for (int i = 0; i < heights.length; i++) {
+                    assertEquals(heights[i], landscape.heightAt(i));
+                }
+            }
+            assertEquals(1000L * (1 + 2 + 4), arena.getAllocatedBytes());
+        }
+    }
+
+    @Test
+    void checkHeightsMustFitWidth() {
+        try (LandscapeArena arena = new LandscapeArena()) {
+            OffHeapLandscape landscape = arena.allocate(10, HeightWidth.BYTE);
+            landscape.setHeight(9, 255);
+            assertEquals(255, landscape.heightAt(9));
+            assertThrows(IllegalArgumentException.class, () -> landscape.setHeight(0, 256));
+            assertThrows(IllegalArgumentException.class, () -> landscape.setHeight(0, -1));
+            assertThrows(IllegalArgumentException.class, () -> arena.allocate(-1, HeightWidth.INT));
+        }
+    }
+
+    @Test
+    void checkClosedArenaRejectsAccess() {
+        LandscapeArena arena = new LandscapeArena();
+        OffHeapLandscape landscape = arena.allocate(100, HeightWidth.INT);
+        landscape.setHeight(50, 7);
+        assertTrue(arena.isOpen());
+
+        arena.close();
+        assertFalse(arena.isOpen());
+        assertEquals(0, arena.getAllocatedBytes());
+        assertThrows(IllegalStateException.class, () -> landscape.heightAt(50));
+        assertThrows(IllegalStateException.class, () -> landscape.setHeight(50, 1));
+        assertThrows(IllegalStateException.class, () -> arena.allocate(100, HeightWidth.INT));
+        assertDoesNotThrow(arena::close);
+    }
+
+    @Test
+    void checkArenaStaysOpenWhileRead() {
+        LandscapeArena arena = new LandscapeArena();
+        OffHeapLandscape landscape = arena.allocate(100, HeightWidth.SHORT);
+        landscape.setHeight(10, 300);
+
+        Landscape.Reader reader = landscape.read();
+        assertThrows(IllegalStateException.class, arena::close);
+        assertTrue(arena.isOpen());
+        assertEquals(300, reader.heightAt(10));
+
+        reader.close();
+        reader.close();
+        assertThrows(IllegalStateException.class, () -> reader.heightAt(10));
+        arena.close();
+        assertFalse(arena.isOpen());
+        assertThrows(IllegalStateException.class, landscape::read);
+    }
+}
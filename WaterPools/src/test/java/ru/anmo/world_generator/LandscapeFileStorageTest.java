@@ -0,0 +1,105 @@
+package ru.anmo.world_generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandscapeFileStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AnnotationConfigApplicationContext context = null;
+    private LandscapeFileStorage landscapeStorage;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        landscapeStorage = context.getBean(LandscapeFileStorage.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void writeAndLoadEveryWidth() throws IOException {
+        for (HeightWidth width : HeightWidth.values()) {
+            int[] landscape = new SplittableRandom(width.ordinal()).ints(10_000, 0, Math.min(width.getMaxHeight(), 1_000_000) + 1).toArray();
+            Path file = tempDir.resolve(width + ".wpl");
+
+            landscapeStorage.write(file, landscape, width);
+
+            assertEquals(LandscapeFileStorage.HEADER_LENGTH + (long) landscape.length * width.getBytes(), Files.size(file));
+            assertArrayEquals(landscape, landscapeStorage.load(file));
+        }
+    }
+
+    @Test
+    void writePicksNarrowestWidth() throws IOException {
+        Path file = tempDir.resolve("narrow.wpl");
+        landscapeStorage.write(file, new int[] { 5, 1, 255, 0 });
+
+        assertEquals(HeightWidth.BYTE, landscapeStorage.map(file).getHeightWidth());
+        assertArrayEquals(new int[] { 5, 1, 255, 0 }, landscapeStorage.load(file));
+    }
+
+    @Test
+    void mapSplitsIntoSegments() throws IOException {
+        int[] landscape = new SplittableRandom(1).ints(1001, 0, 32001).toArray();
+        Path file = tempDir.resolve("segments.wpl");
+        landscapeStorage.write(file, landscape, HeightWidth.SHORT);
+
+        MappedLandscape mappedLandscape = landscapeStorage.map(file, 64);
+
+        assertEquals(32, mappedLandscape.getColumnsPerSegment());
+        assertEquals(32, mappedLandscape.getSegmentCount());
+        assertEquals(9, mappedLandscape.getSegmentLength(31));
+        for (int i = 0; i < landscape.length; i++) {
+            assertEquals(landscape[i], mappedLandscape.heightAt(i));
+        }
+    }
+
+    @Test
+    void writeTooHighHeight() {
+        Path file = tempDir.resolve("too_high.wpl");
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.write(file, new int[] { 1, 256 }, HeightWidth.BYTE));
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.write(file, new int[] { -1 }, HeightWidth.INT));
+    }
+
+    @Test
+    void loadBrokenFiles() throws IOException {
+        Path notLandscape = tempDir.resolve("not_landscape.wpl");
+        Files.write(notLandscape, new byte[32]);
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.load(notLandscape));
+
+        Path tooShort = tempDir.resolve("too_short.wpl");
+        Files.write(tooShort, new byte[3]);
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.load(tooShort));
+
+        Path truncated = tempDir.resolve("truncated.wpl");
+        landscapeStorage.write(truncated, new int[] { 1, 2, 3, 4 }, HeightWidth.INT);
+        byte[] content = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(content, content.length - 1));
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.load(truncated));
+
+        // (2^62 + 1) columns of 4 bytes overflow to 4 bytes, which the file does have
+        ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN).putLong(8, (1L << 62) + 1);
+        Files.write(truncated, content);
+        assertThrows(ILandscapeStorage.IncorrectLandscapeFileException.class, () -> landscapeStorage.load(truncated));
+    }
+}
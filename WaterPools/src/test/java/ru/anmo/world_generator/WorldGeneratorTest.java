@@ -1,5 +1,6 @@
 package ru.anmo.world_generator;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,7 @@ import org.springframework.context.annotation.AnnotationConfigApplicationContext
 import ru.anmo.configuration.AppConfiguration;
 
 import java.util.Arrays;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +23,11 @@ class WorldGeneratorTest {
         worldGenerator = context.getBean(WorldGenerator.class);
     }
 
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
     @Test
     void generateCustomWorldWithCorrectLengthAndHeight() {
         int worldLength = 100;
@@ -43,6 +50,207 @@ class WorldGeneratorTest {
         checkWorld(generatedWorld);
     }
 
+    @Nested
+    class NarrowWorldGeneratorLogic {
+        @Test
+        void generateShortWorld() {
+            short[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateShortWorld(100, WorldGenerator.MAX_HEIGHT));
+            assertEquals(100, generatedWorld.length);
+            for (short height : generatedWorld) {
+                assertTrue(height >= WorldGenerator.MIN_HEIGHT && height <= WorldGenerator.MAX_HEIGHT);
+            }
+        }
+
+        @Test
+        void generateByteWorld() {
+            byte[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateByteWorld(100, 255));
+            assertEquals(100, generatedWorld.length);
+        }
+
+        @Test
+        void generateByteWorldTooBigHeight() {
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateByteWorld(100, 256));
+        }
+
+        @Test
+        void generateNarrowWorldPicksNarrowestWidth() {
+            NarrowWorld byteWorld = assertDoesNotThrow(() -> worldGenerator.generateNarrowWorld(100, 200));
+            NarrowWorld shortWorld = assertDoesNotThrow(() -> worldGenerator.generateNarrowWorld(100, 300));
+
+            assertEquals(HeightWidth.BYTE, byteWorld.getHeightWidth());
+            assertEquals(HeightWidth.SHORT, shortWorld.getHeightWidth());
+            checkWorld(byteWorld.toIntArray(), 100, 200);
+            checkWorld(shortWorld.toIntArray(), 100, 300);
+        }
+
+        @Test
+        void narrowManualWorld() {
+            int[] worldHeights = {2, 3, 3, 1, 2, 1, 0, 5, 1, 3, 2, 0, 2, 0, 1, 5, 2, 1, 1, 2};
+
+            NarrowWorld narrowWorld = NarrowWorld.narrow(worldHeights);
+            assertEquals(HeightWidth.BYTE, narrowWorld.getHeightWidth());
+            assertArrayEquals(worldHeights, narrowWorld.toIntArray());
+            assertEquals(HeightWidth.SHORT, NarrowWorld.narrow(new int[] { 1, 65535 }).getHeightWidth());
+            assertEquals(HeightWidth.INT, NarrowWorld.narrow(new int[] { 1, 65536 }).getHeightWidth());
+            assertEquals(HeightWidth.INT, NarrowWorld.narrow(new int[] { -1, 5 }).getHeightWidth());
+        }
+    }
+
+    @Nested
+    class ShapedWorldGeneratorLogic {
+        @Test
+        void generateEveryShape() {
+            for (WorldShape shape : WorldShape.values()) {
+                int[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(shape, 1000, 500, 1));
+                assertEquals(1000, generatedWorld.length);
+                assertTrue(isWorldHeightIsCorrect(generatedWorld, 500));
+            }
+        }
+
+        @Test
+        void generateShapesDeterministically() {
+            for (WorldShape shape : WorldShape.values()) {
+                int[] firstWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(shape, 1000, 500, 42));
+                int[] secondWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(shape, 1000, 500, 42));
+                assertArrayEquals(firstWorld, secondWorld);
+            }
+
+            int[] otherSeedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.RANDOM, 1000, 500, 43));
+            assertFalse(Arrays.equals(otherSeedWorld, assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.RANDOM, 1000, 500, 42))));
+        }
+
+        @Test
+        void generateShapeProfiles() {
+            int[] ramp = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.RAMP, 101, 100, 0));
+            int[] valley = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.VALLEY, 101, 100, 0));
+            int[] plateau = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.PLATEAU, 101, 100, 0));
+
+            assertEquals(0, ramp[0]);
+            assertEquals(100, ramp[100]);
+            assertEquals(100, valley[0]);
+            assertEquals(0, valley[50]);
+            assertEquals(100, valley[100]);
+            assertEquals(7, Arrays.stream(plateau).filter(height -> height == 100).count());
+        }
+
+        @Test
+        void generateShapeBeyondRandomWorldLimits() {
+            int[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.SAWTOOTH, WorldGenerator.MAX_LENGTH * 4, 100, 0));
+            assertEquals(WorldGenerator.MAX_LENGTH * 4, generatedWorld.length);
+
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(WorldShape.RAMP, -1, 100, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(WorldShape.RAMP, 100, WorldGenerator.MAX_HEIGHT + 1, 0));
+        }
+    }
+
+    @Nested
+    class SeededWorldGeneratorLogic {
+        @Test
+        void generateBeyondRandomWorldLimits() {
+            int worldLength = 3_000_000;
+            int[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(worldLength, 100, 7));
+
+            assertEquals(worldLength, generatedWorld.length);
+            assertTrue(isWorldHeightIsCorrect(generatedWorld, 100));
+            assertTrue(Arrays.stream(generatedWorld).anyMatch(height -> height == 100));
+        }
+
+        @Test
+        void generateChunksFromSplitSeed() {
+            int[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldGenerator.SEEDED_CHUNK_LENGTH + 10, 1000, 42));
+
+            SplittableRandom random = new SplittableRandom(42);
+            SplittableRandom firstChunkRandom = random.split();
+            SplittableRandom secondChunkRandom = random.split();
+            assertEquals(firstChunkRandom.nextInt(0, 1001), generatedWorld[0]);
+            assertEquals(secondChunkRandom.nextInt(0, 1001), generatedWorld[WorldGenerator.SEEDED_CHUNK_LENGTH]);
+        }
+
+        @Test
+        void generateSameWorldWithAnyParallelism() {
+            int[] generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(1_000_000, 32000, 42));
+
+            System.setProperty("waterpools.executor.parallelism", "1");
+            try (AnnotationConfigApplicationContext singleThreadContext = new AnnotationConfigApplicationContext(AppConfiguration.class)) {
+                IWorldGenerator singleThreadGenerator = singleThreadContext.getBean(IWorldGenerator.class);
+                assertArrayEquals(generatedWorld, assertDoesNotThrow(() -> singleThreadGenerator.generateWorld(1_000_000, 32000, 42)));
+            } finally {
+                System.clearProperty("waterpools.executor.parallelism");
+            }
+            assertArrayEquals(generatedWorld, assertDoesNotThrow(() -> worldGenerator.generateWorld(WorldShape.RANDOM, 1_000_000, 32000, 42)));
+        }
+
+        @Test
+        void generateHeightMap() {
+            int[] heightMap = assertDoesNotThrow(() -> worldGenerator.generateHeightMap(300, 200, 100, 42));
+            assertEquals(300 * 200, heightMap.length);
+            assertArrayEquals(assertDoesNotThrow(() -> worldGenerator.generateWorld(300 * 200, 100, 42)), heightMap);
+
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateHeightMap(100_000, 100_000, 100, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateHeightMap(-1, 10, 100, 0));
+        }
+
+        @Test
+        void generateOffHeapWorld() {
+            int worldLength = 3 * WorldGenerator.SEEDED_CHUNK_LENGTH + 17;
+            try (LandscapeArena arena = new LandscapeArena()) {
+                OffHeapLandscape generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(arena, worldLength, 1000, 42));
+                int[] heapWorld = assertDoesNotThrow(() -> worldGenerator.generateWorld(worldLength, 1000, 42));
+
+                assertEquals(worldLength, generatedWorld.getLength());
+                assertEquals(HeightWidth.SHORT, generatedWorld.getHeightWidth());
+                for (int i = 0; i < worldLength; i++) {
+                    assertEquals(heapWorld[i], generatedWorld.heightAt(i));
+                }
+
+                assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(arena, -1L, 100, 0));
+                assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(arena, WorldGenerator.MAX_OFF_HEAP_LENGTH + 1, 100, 0));
+                assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(arena, 100L, WorldGenerator.MAX_HEIGHT + 1, 0));
+            }
+        }
+
+        @Test
+        void generateRunLengthWorld() {
+            RunLengthLandscape generatedWorld = assertDoesNotThrow(() -> worldGenerator.generateRunLengthWorld(1L << 40, 100, 1L << 30, 42));
+
+            assertEquals(1L << 40, generatedWorld.getLength());
+            long length = 0;
+            for (int run = 0; run < generatedWorld.getRunCount(); run++) {
+                assertTrue(generatedWorld.getRunLength(run) >= 1 && generatedWorld.getRunLength(run) <= 1L << 30);
+                assertTrue(generatedWorld.getHeight(run) >= 0 && generatedWorld.getHeight(run) <= 100);
+                length += generatedWorld.getRunLength(run);
+            }
+            assertEquals(1L << 40, length);
+            assertEquals(generatedWorld.getRunCount(), assertDoesNotThrow(() -> worldGenerator.generateRunLengthWorld(1L << 40, 100, 1L << 30, 42)).getRunCount());
+            assertEquals(0, assertDoesNotThrow(() -> worldGenerator.generateRunLengthWorld(0, 100, 10, 42)).getRunCount());
+
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateRunLengthWorld(-1, 100, 10, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateRunLengthWorld(100, 100, 0, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateRunLengthWorld(1L << 40, 100, 1, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateRunLengthWorld(100, WorldGenerator.MAX_HEIGHT + 1, 10, 0));
+        }
+
+        @Test
+        void encodeRunLengthWorld() {
+            RunLengthLandscape encodedWorld = RunLengthLandscape.encode(new int[] { 3, 3, 3, 0, 0, 5, 3, 3 });
+            assertEquals(4, encodedWorld.getRunCount());
+            assertEquals(8, encodedWorld.getLength());
+            assertEquals(2, encodedWorld.getRunLength(1));
+            assertArrayEquals(new int[] { 3, 3, 3, 0, 0, 5, 3, 3 }, encodedWorld.toIntArray());
+
+            assertThrows(IllegalArgumentException.class, () -> RunLengthLandscape.of(new int[] { 1 }, new long[] { 0 }));
+            assertThrows(IllegalArgumentException.class, () -> RunLengthLandscape.of(new int[] { 1 }, new long[] { 1, 2 }));
+            assertThrows(IllegalStateException.class, () -> RunLengthLandscape.of(new int[] { 1 }, new long[] { 1L << 40 }).toIntArray());
+        }
+
+        @Test
+        void generateIncorrectSeededWorld() {
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(-1, 100, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(100, WorldGenerator.MAX_HEIGHT + 1, 0));
+            assertThrows(IWorldGenerator.IncorrectWorldParametersException.class, () -> worldGenerator.generateWorld(100, -1, 0));
+        }
+    }
+
     @Nested
     class WorldGeneratorLengthLogic {
         @Test
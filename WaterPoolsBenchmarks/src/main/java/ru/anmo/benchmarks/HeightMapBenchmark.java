@@ -0,0 +1,69 @@
+package ru.anmo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.waterpool_solver.IHeightMapSolver;
+import ru.anmo.world_generator.IWorldGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link IHeightMapSolver} over square random maps of {@code size x size} columns.
+ * 10k x 10k maps need {@code -p size=10000 -jvmArgsAppend -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeightMapBenchmark {
+
+    @Param({ "PriorityFloodHeightMapSolver", "TiledHeightMapSolver" })
+    public String solver;
+
+    @Param({ "100", "1000", "3000" })
+    public int size;
+
+    @Param({ "0" })
+    public int parallelism;
+
+    @Param({ "32000" })
+    public int maxHeight;
+
+    private AnnotationConfigApplicationContext context;
+    private IHeightMapSolver heightMapSolver;
+    private int[] heights;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty("waterpools.executor.parallelism", Integer.toString(parallelism));
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+
+        heightMapSolver = (IHeightMapSolver) context.getBean(Class.forName("ru.anmo.waterpool_solver." + solver));
+        heights = context.getBean(IWorldGenerator.class).generateHeightMap(size, size, maxHeight, BenchmarkRunner.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long calculateWaterAmount() {
+        return heightMapSolver.calculateWaterAmount(heights, size);
+    }
+}
@@ -0,0 +1,94 @@
+package ru.anmo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.waterpool_solver.IWaterPoolSolver;
+import ru.anmo.world_generator.IWorldGenerator;
+import ru.anmo.world_generator.WorldGenerator;
+import ru.anmo.world_generator.WorldShape;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every {@link IWaterPoolSolver} implementation over every {@link WorldShape}.
+ * {@code parallelism} sizes the shared executor, run with {@code -t N} to add concurrent callers.
+ * Lengths up to 10^9 are supported, e.g. {@code -p length=1000000000 -jvmArgsAppend -Xmx8g}.
+ * <p>
+ * The recursive solvers split a section at its highest columns, so on the monotone {@link WorldShape#RAMP} and
+ * {@link WorldShape#VALLEY} every level peels off a single column: longer than {@link #RECURSIVE_MAX_LENGTH} they
+ * run in quadratic time and would stall the whole run. {@link #setUp()} rejects those trials, JMH reports them as
+ * failed and goes on with the next parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SolverBenchmark {
+
+    public static final int RECURSIVE_MAX_LENGTH = 1000;
+
+    @Param({ "SequentialWaterPoolSolver", "ParallelPrefixWaterPoolSolver", "VectorWaterPoolSolver", "AdaptiveWaterPoolSolver", "StreamingWaterPoolSolver",
+             "ShardedWaterPoolSolver", "MappedWaterPoolSolver", "AsyncWaterPoolSolver", "WaterPoolSolver" })
+    public String solver;
+
+    @Param({ "RANDOM", "RAMP", "VALLEY", "PLATEAU", "SAWTOOTH" })
+    public WorldShape shape;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int length;
+
+    // 0 means all available processors
+    @Param({ "1", "2", "4", "0" })
+    public int parallelism;
+
+    @Param({ "32000" })
+    public int maxHeight;
+
+    private AnnotationConfigApplicationContext context;
+    private IWaterPoolSolver waterPoolSolver;
+    private int[] landscape;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (isRecursive(solver) && (shape == WorldShape.RAMP || shape == WorldShape.VALLEY) && length > RECURSIVE_MAX_LENGTH) {
+            throw new IllegalStateException("Skipped: " + solver + " is quadratic on " + shape + " longer than " + RECURSIVE_MAX_LENGTH);
+        }
+
+        System.setProperty("waterpools.executor.parallelism", Integer.toString(parallelism));
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+
+        waterPoolSolver = (IWaterPoolSolver) context.getBean(Class.forName("ru.anmo.waterpool_solver." + solver));
+        landscape = context.getBean(IWorldGenerator.class).generateWorld(shape, length, maxHeight, BenchmarkRunner.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long calculateWaterAmount() {
+        return waterPoolSolver.calculateWaterAmount(landscape);
+    }
+
+
+
+    private static boolean isRecursive(String solver) {
+        return solver.equals("WaterPoolSolver") || solver.equals("AsyncWaterPoolSolver");
+    }
+}
@@ -0,0 +1,54 @@
+package ru.anmo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.anmo.configuration.AppConfiguration;
+import ru.anmo.world_generator.IWorldGenerator;
+import ru.anmo.world_generator.WorldShape;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldGeneratorBenchmark {
+
+    @Param({ "RANDOM", "RAMP", "VALLEY", "PLATEAU", "SAWTOOTH" })
+    public WorldShape shape;
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int length;
+
+    private AnnotationConfigApplicationContext context;
+    private IWorldGenerator worldGenerator;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(AppConfiguration.class);
+        worldGenerator = context.getBean(IWorldGenerator.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int[] generateWorld() throws IWorldGenerator.IncorrectWorldParametersException {
+        return worldGenerator.generateWorld(shape, length, 32000, BenchmarkRunner.SEED);
+    }
+}